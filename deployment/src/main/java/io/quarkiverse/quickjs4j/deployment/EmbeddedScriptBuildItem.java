@@ -0,0 +1,20 @@
+package io.quarkiverse.quickjs4j.deployment;
+
+import io.quarkus.builder.item.MultiBuildItem;
+
+/**
+ * A script library (original script or build-time bundle) that is available as a classpath resource,
+ * and is loaded by the generated CDI beans.
+ */
+public final class EmbeddedScriptBuildItem extends MultiBuildItem {
+
+    private final String location;
+
+    public EmbeddedScriptBuildItem(String location) {
+        this.location = location;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+}
@@ -0,0 +1,54 @@
+package io.quarkiverse.quickjs4j.deployment;
+
+import io.quarkus.runtime.annotations.ConfigPhase;
+import io.quarkus.runtime.annotations.ConfigRoot;
+import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
+import io.smallrye.config.WithName;
+
+@ConfigMapping(prefix = "quarkus.quickjs4j")
+@ConfigRoot(phase = ConfigPhase.BUILD_TIME)
+public interface Quickjs4jBuildTimeConfig {
+
+    /**
+     * Build-time bundling of the scripts referenced by `@ScriptImplementation`.
+     */
+    BundleConfig bundle();
+
+    /**
+     * Native image specific configuration.
+     */
+    @WithName("native")
+    NativeConfig nativeConfig();
+
+    interface BundleConfig {
+
+        /**
+         * Whether the scripts referenced by `@ScriptImplementation` are bundled at build time. Relative
+         * ES module imports (e.g. `import { f } from './lib.js'`) are resolved against the script location
+         * and the result is packaged as `META-INF/quickjs4j/<interface FQN>.bundle.js`, which is then loaded
+         * instead of the original script. Scripts without relative imports are only bundled when minified.
+         */
+        @WithDefault("true")
+        boolean enabled();
+
+        /**
+         * Whether bundled scripts are minified, i.e. comments, indentation and redundant whitespace are removed.
+         * The minifier is not a full JavaScript parser, so check the behavior of minified scripts before
+         * enabling it.
+         */
+        @WithDefault("false")
+        boolean minify();
+    }
+
+    interface NativeConfig {
+
+        /**
+         * Whether the scripts referenced by `@ScriptImplementation` (or their bundles) are loaded at image
+         * build time, so that they are part of the image heap and do not have to be read from the image
+         * resources on first invocation.
+         */
+        @WithDefault("true")
+        boolean embedScripts();
+    }
+}
@@ -1,16 +1,58 @@
 package io.quarkiverse.quickjs4j.deployment;
 
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.jboss.jandex.AnnotationInstance;
+import org.jboss.jandex.AnnotationTarget;
+import org.jboss.jandex.AnnotationValue;
+import org.jboss.jandex.ClassInfo;
+import org.jboss.jandex.DotName;
+import org.jboss.jandex.IndexView;
+import org.jboss.logging.Logger;
+
 import io.quarkiverse.quickjs4j.ScriptInterfaceFactory;
+import io.quarkiverse.quickjs4j.annotations.ScriptImplementation;
+import io.quarkiverse.quickjs4j.annotations.ScriptShadow;
+import io.quarkiverse.quickjs4j.devui.Quickjs4jJsonRpcService;
+import io.quarkiverse.quickjs4j.metrics.ScriptMetricsBinder;
+import io.quarkiverse.quickjs4j.runtime.ScriptLibraryRecorder;
 import io.quarkiverse.quickjs4j.util.ScriptInterfaceUtils;
+import io.quarkus.arc.deployment.AdditionalBeanBuildItem;
+import io.quarkus.arc.deployment.GeneratedBeanBuildItem;
+import io.quarkus.arc.deployment.GeneratedBeanGizmoAdaptor;
+import io.quarkus.deployment.Capabilities;
+import io.quarkus.deployment.Capability;
+import io.quarkus.deployment.IsLocalDevelopment;
 import io.quarkus.deployment.annotations.BuildProducer;
 import io.quarkus.deployment.annotations.BuildStep;
+import io.quarkus.deployment.annotations.ExecutionTime;
+import io.quarkus.deployment.annotations.Record;
 import io.quarkus.deployment.builditem.AdditionalIndexedClassesBuildItem;
+import io.quarkus.deployment.builditem.CombinedIndexBuildItem;
 import io.quarkus.deployment.builditem.FeatureBuildItem;
+import io.quarkus.deployment.builditem.GeneratedResourceBuildItem;
+import io.quarkus.deployment.builditem.nativeimage.NativeImageResourceBuildItem;
+import io.quarkus.deployment.pkg.steps.NativeOrNativeSourcesBuild;
+import io.quarkus.devui.spi.JsonRPCProvidersBuildItem;
+import io.quarkus.devui.spi.page.CardPageBuildItem;
+import io.quarkus.devui.spi.page.Page;
 
 public class Quickjs4jProcessor {
 
+    private static final Logger LOGGER = Logger.getLogger(Quickjs4jProcessor.class);
+
     private static final String FEATURE = "quickjs4j-cdi";
 
+    private static final DotName SCRIPT_INTERFACE = DotName.createSimple("io.roastedroot.quickjs4j.annotations.ScriptInterface");
+    private static final DotName SCRIPT_IMPLEMENTATION = DotName.createSimple(ScriptImplementation.class.getName());
+    private static final DotName SCRIPT_SHADOW = DotName.createSimple(ScriptShadow.class.getName());
+
     @BuildStep
     FeatureBuildItem feature() {
         return new FeatureBuildItem(FEATURE);
@@ -22,4 +64,195 @@ public class Quickjs4jProcessor {
         producer.produce(new AdditionalIndexedClassesBuildItem(ScriptInterfaceUtils.class.getName()));
     }
 
+    /**
+     * Exposes the script instance metrics as Micrometer meters when the Micrometer extension is present.
+     */
+    @BuildStep
+    public void metrics(Capabilities capabilities, BuildProducer<AdditionalBeanBuildItem> additionalBeans) {
+        if (capabilities.isPresent(Capability.MICROMETER)) {
+            additionalBeans.produce(AdditionalBeanBuildItem.unremovableOf(ScriptMetricsBinder.class));
+        }
+    }
+
+    /**
+     * Generates the {@code _Factory} and {@code _CDI} beans of every {@code @ScriptInterface} that was compiled
+     * without the quarkus-quickjs4j annotation processor. Only the quickjs4j processor, which generates the
+     * {@code _Proxy} classes, is then required at compile time. The build fails for script interfaces using
+     * annotations that only the beans generated by the annotation processor implement.
+     */
+    @BuildStep
+    public void generateBeans(CombinedIndexBuildItem combinedIndex, BuildProducer<GeneratedBeanBuildItem> generatedBeans) {
+        IndexView index = combinedIndex.getIndex();
+        ScriptBeanGenerator generator = new ScriptBeanGenerator(index, new GeneratedBeanGizmoAdaptor(generatedBeans));
+
+        for (AnnotationInstance annotation : index.getAnnotations(SCRIPT_INTERFACE)) {
+            if (annotation.target().kind() != AnnotationTarget.Kind.CLASS) {
+                continue;
+            }
+            ClassInfo scriptInterface = annotation.target().asClass();
+            String interfaceName = scriptInterface.name().toString();
+            if (index.getClassByName(DotName.createSimple(interfaceName + "_Proxy")) == null) {
+                LOGGER.warnf("No %s_Proxy class found for script interface %s, make sure the quickjs4j annotation "
+                        + "processor is enabled", interfaceName, interfaceName);
+                continue;
+            }
+
+            AnnotationValue contextValue = annotation.value("context");
+            DotName contextClass = contextValue == null ? null : contextValue.asClass().name();
+            if (contextClass != null && contextClass.equals(DotName.createSimple(Void.class.getName()))) {
+                contextClass = null;
+            }
+
+            if (index.getClassByName(DotName.createSimple(interfaceName + "_Factory")) == null) {
+                LOGGER.debugf("Generating %s_Factory at build time", interfaceName);
+                generator.generateFactory(scriptInterface, contextClass);
+            }
+
+            AnnotationInstance scriptImplementation = scriptInterface.declaredAnnotation(SCRIPT_IMPLEMENTATION);
+            if (scriptImplementation != null
+                    && index.getClassByName(DotName.createSimple(interfaceName + "_CDI")) == null) {
+                // A bean ignoring these annotations would behave differently from the one the processor generates
+                Set<String> unsupported = generator.unsupportedAnnotations(scriptInterface);
+                if (!unsupported.isEmpty()) {
+                    throw new IllegalStateException("Script interface " + interfaceName + " uses "
+                            + String.join(", ", unsupported) + ", which are only implemented by the quarkus-quickjs4j "
+                            + "annotation processor: add io.quarkiverse.quickjs4j:quarkus-quickjs4j to the annotation "
+                            + "processor path");
+                }
+                LOGGER.debugf("Generating %s_CDI at build time", interfaceName);
+                AnnotationValue excludedValue = annotation.value("excluded");
+                Set<String> excluded = excludedValue == null ? Set.of() : Set.of(excludedValue.asStringArray());
+                generator.generateCdiBean(scriptInterface, contextClass, scriptImplementation.value("location").asString(),
+                        excluded);
+            }
+        }
+    }
+
+    /**
+     * Bundles (and minifies) the script of every {@code @ScriptImplementation} that is available as a
+     * classpath resource at build time, and registers the scripts as native image resources.
+     */
+    @BuildStep
+    public void bundleScripts(Quickjs4jBuildTimeConfig config, CombinedIndexBuildItem combinedIndex,
+            BuildProducer<GeneratedResourceBuildItem> generatedResources,
+            BuildProducer<NativeImageResourceBuildItem> nativeImageResources,
+            BuildProducer<EmbeddedScriptBuildItem> embeddedScripts) {
+        for (AnnotationInstance annotation : combinedIndex.getIndex().getAnnotations(SCRIPT_IMPLEMENTATION)) {
+            if (annotation.target().kind() != AnnotationTarget.Kind.CLASS) {
+                continue;
+            }
+            ClassInfo scriptInterface = annotation.target().asClass();
+            String location = annotation.value("location").asString();
+
+            // Scripts that only exist on the file system at runtime cannot be bundled
+            String source = loadResource(location);
+            if (source == null) {
+                LOGGER.debugf("Script %s of %s is not a classpath resource, skipping bundling", location,
+                        scriptInterface.name());
+                continue;
+            }
+            nativeImageResources.produce(new NativeImageResourceBuildItem(location));
+            if (!config.bundle().enabled()
+                    || (!ScriptBundler.hasRelativeImports(source) && !config.bundle().minify())) {
+                embeddedScripts.produce(new EmbeddedScriptBuildItem(location));
+                continue;
+            }
+
+            String bundle;
+            try {
+                bundle = ScriptBundler.bundle(location, source, Quickjs4jProcessor::loadResource);
+            } catch (IllegalStateException e) {
+                throw new IllegalStateException("Failed to bundle script " + location + " of " + scriptInterface.name()
+                        + ": " + e.getMessage(), e);
+            }
+            if (config.bundle().minify()) {
+                bundle = ScriptBundler.minify(bundle);
+            }
+
+            String bundleLocation = ScriptInterfaceUtils.bundleLocation(scriptInterface.name().toString());
+            LOGGER.debugf("Bundled script %s of %s into %s (%d -> %d chars)", location, scriptInterface.name(),
+                    bundleLocation, source.length(), bundle.length());
+            generatedResources.produce(new GeneratedResourceBuildItem(bundleLocation,
+                    bundle.getBytes(StandardCharsets.UTF_8)));
+            nativeImageResources.produce(new NativeImageResourceBuildItem(bundleLocation));
+            embeddedScripts.produce(new EmbeddedScriptBuildItem(bundleLocation));
+        }
+    }
+
+    /**
+     * Registers the candidate scripts of {@code @ScriptShadow} interfaces that are classpath resources as native
+     * image resources. Candidate scripts are loaded as is, without bundling.
+     */
+    @BuildStep
+    public void shadowScripts(CombinedIndexBuildItem combinedIndex,
+            BuildProducer<NativeImageResourceBuildItem> nativeImageResources) {
+        for (AnnotationInstance annotation : combinedIndex.getIndex().getAnnotations(SCRIPT_SHADOW)) {
+            String location = annotation.value("location").asString();
+            if (loadResource(location) != null) {
+                nativeImageResources.produce(new NativeImageResourceBuildItem(location));
+            }
+        }
+    }
+
+    /**
+     * Loads the script libraries at static init, which runs at image build time in native mode, so that
+     * they are part of the image heap.
+     */
+    @BuildStep(onlyIf = NativeOrNativeSourcesBuild.class)
+    @Record(ExecutionTime.STATIC_INIT)
+    public void embedScripts(Quickjs4jBuildTimeConfig config, ScriptLibraryRecorder recorder,
+            List<EmbeddedScriptBuildItem> embeddedScripts) {
+        if (!config.nativeConfig().embedScripts() || embeddedScripts.isEmpty()) {
+            return;
+        }
+        List<String> locations = new ArrayList<>();
+        for (EmbeddedScriptBuildItem embeddedScript : embeddedScripts) {
+            locations.add(embeddedScript.getLocation());
+        }
+        recorder.embedScriptLibraries(locations);
+    }
+
+    /**
+     * Adds a Dev UI card listing every script interface with its script and TypeScript definitions, and a page
+     * with the live instances, invocation latencies and compile times of the script interfaces in use.
+     */
+    @BuildStep(onlyIf = IsLocalDevelopment.class)
+    public void devUi(CombinedIndexBuildItem combinedIndex, BuildProducer<CardPageBuildItem> cardPages,
+            BuildProducer<JsonRPCProvidersBuildItem> jsonRpcProviders) {
+        List<Map<String, Object>> scriptInterfaces = new ArrayList<>();
+        for (AnnotationInstance annotation : combinedIndex.getIndex().getAnnotations(SCRIPT_INTERFACE)) {
+            if (annotation.target().kind() != AnnotationTarget.Kind.CLASS) {
+                continue;
+            }
+            ClassInfo scriptInterface = annotation.target().asClass();
+            AnnotationInstance scriptImplementation = scriptInterface.declaredAnnotation(SCRIPT_IMPLEMENTATION);
+            // TypeScript definitions are only generated for script interfaces with a context
+            String typeDefinitionsLocation = "META-INF/quickjs4j/" + scriptInterface.simpleName() + "_Builtins.d.ts";
+            String typeDefinitions = loadResource(typeDefinitionsLocation);
+
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("name", scriptInterface.name().toString());
+            entry.put("location", scriptImplementation == null ? null : scriptImplementation.value("location").asString());
+            entry.put("typeDefinitionsLocation", typeDefinitions == null ? null : typeDefinitionsLocation);
+            entry.put("typeDefinitions", typeDefinitions);
+            scriptInterfaces.add(entry);
+        }
+        scriptInterfaces.sort((a, b) -> ((String) a.get("name")).compareTo((String) b.get("name")));
+
+        CardPageBuildItem cardPage = new CardPageBuildItem();
+        cardPage.addBuildTimeData("scriptInterfaces", scriptInterfaces);
+        cardPage.addPage(Page.webComponentPageBuilder()
+                .title("Script Interfaces")
+                .icon("font-awesome-brands:js")
+                .componentLink("qwc-quickjs4j-scripts.js")
+                .staticLabel(String.valueOf(scriptInterfaces.size())));
+        cardPages.produce(cardPage);
+        jsonRpcProviders.produce(new JsonRPCProvidersBuildItem(Quickjs4jJsonRpcService.class));
+    }
+
+    private static String loadResource(String location) {
+        URL resourceUrl = Thread.currentThread().getContextClassLoader().getResource(location);
+        return resourceUrl == null ? null : ScriptInterfaceUtils.loadScriptLibrary(resourceUrl);
+    }
+
 }
@@ -0,0 +1,273 @@
+package io.quarkiverse.quickjs4j.deployment;
+
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import org.jboss.jandex.ClassInfo;
+import org.jboss.jandex.DotName;
+import org.jboss.jandex.IndexView;
+import org.jboss.jandex.MethodInfo;
+
+import io.quarkiverse.quickjs4j.ScriptInterfaceFactory;
+import io.quarkiverse.quickjs4j.annotations.ScriptBatched;
+import io.quarkiverse.quickjs4j.annotations.ScriptBulkhead;
+import io.quarkiverse.quickjs4j.annotations.ScriptCacheable;
+import io.quarkiverse.quickjs4j.annotations.ScriptCoalesced;
+import io.quarkiverse.quickjs4j.annotations.ScriptRecorded;
+import io.quarkiverse.quickjs4j.annotations.ScriptShadow;
+import io.quarkiverse.quickjs4j.annotations.ScriptTiered;
+import io.quarkiverse.quickjs4j.jfr.ScriptInstantiateEvent;
+import io.quarkiverse.quickjs4j.jfr.ScriptInvokeEvent;
+import io.quarkiverse.quickjs4j.util.ScriptInstanceMetrics;
+import io.quarkiverse.quickjs4j.util.ScriptInterfaceUtils;
+import io.quarkus.gizmo.AssignableResultHandle;
+import io.quarkus.gizmo.CatchBlockCreator;
+import io.quarkus.gizmo.ClassCreator;
+import io.quarkus.gizmo.ClassOutput;
+import io.quarkus.gizmo.DescriptorUtils;
+import io.quarkus.gizmo.FieldCreator;
+import io.quarkus.gizmo.FieldDescriptor;
+import io.quarkus.gizmo.MethodCreator;
+import io.quarkus.gizmo.MethodDescriptor;
+import io.quarkus.gizmo.ResultHandle;
+import io.quarkus.gizmo.SignatureBuilder;
+import io.quarkus.gizmo.TryBlock;
+import io.quarkus.gizmo.Type;
+
+/**
+ * Generates the {@code _Factory} and {@code _CDI} beans of a script interface as bytecode at build time.
+ * These are the same beans the annotation processor generates, and are only used for script interfaces
+ * that were compiled without it (the {@code _Proxy} class generated by quickjs4j is still required).
+ */
+class ScriptBeanGenerator {
+
+    private static final MethodDescriptor LOAD_SCRIPT_LIBRARY = MethodDescriptor.ofMethod(ScriptInterfaceUtils.class,
+            "loadScriptLibrary", String.class, String.class, String.class);
+    private static final MethodDescriptor CLOSE = MethodDescriptor.ofMethod(AutoCloseable.class, "close", void.class);
+    private static final MethodDescriptor CREATE_METRICS = MethodDescriptor.ofMethod(ScriptInstanceMetrics.class,
+            "create", ScriptInstanceMetrics.class, String.class);
+    private static final MethodDescriptor METRICS_SCRIPT_LOADED = MethodDescriptor.ofMethod(ScriptInstanceMetrics.class,
+            "scriptLoaded", void.class, String.class);
+    private static final MethodDescriptor METRICS_OPENED = MethodDescriptor.ofMethod(ScriptInstanceMetrics.class,
+            "opened", void.class);
+    private static final MethodDescriptor METRICS_CLOSED = MethodDescriptor.ofMethod(ScriptInstanceMetrics.class,
+            "closed", void.class);
+    private static final MethodDescriptor EVENT_BEGIN = MethodDescriptor.ofMethod(jdk.jfr.Event.class, "begin", void.class);
+    private static final MethodDescriptor EVENT_COMMIT = MethodDescriptor.ofMethod(jdk.jfr.Event.class, "commit", void.class);
+
+    // Annotations only implemented by the beans generated by the quarkus-quickjs4j annotation processor
+    private static final List<DotName> PROCESSOR_ONLY_ANNOTATIONS = List.of(
+            DotName.createSimple(ScriptBatched.class.getName()),
+            DotName.createSimple(ScriptBulkhead.class.getName()),
+            DotName.createSimple(ScriptCacheable.class.getName()),
+            DotName.createSimple(ScriptCoalesced.class.getName()),
+            DotName.createSimple(ScriptRecorded.class.getName()),
+            DotName.createSimple(ScriptShadow.class.getName()),
+            DotName.createSimple(ScriptTiered.class.getName()));
+
+    private final IndexView index;
+    private final ClassOutput classOutput;
+
+    ScriptBeanGenerator(IndexView index, ClassOutput classOutput) {
+        this.index = index;
+        this.classOutput = classOutput;
+    }
+
+    /**
+     * Generates {@code <interface>_Factory}, implementing {@code ScriptInterfaceFactory<T, C>}.
+     */
+    void generateFactory(ClassInfo scriptInterface, DotName contextClass) {
+        String factoryClassName = scriptInterface.name().toString() + "_Factory";
+        String proxyClassName = scriptInterface.name().toString() + "_Proxy";
+        String contextClassName = contextClass != null ? contextClass.toString() : Void.class.getName();
+
+        String signature = SignatureBuilder.forClass()
+                .addInterface(Type.parameterizedType(Type.classType(ScriptInterfaceFactory.class),
+                        Type.classType(scriptInterface.name()), Type.classType(contextClassName)))
+                .build();
+
+        try (ClassCreator factory = ClassCreator.builder()
+                .classOutput(classOutput)
+                .className(factoryClassName)
+                .interfaces(ScriptInterfaceFactory.class)
+                .signature(signature)
+                .build()) {
+            factory.addAnnotation(ApplicationScoped.class);
+
+            // create(String, C) - erased to create(String, Object)
+            MethodCreator create = factory.getMethodCreator("create", Object.class, String.class, Object.class);
+            ResultHandle event = beginInstantiateEvent(create, scriptInterface);
+            ResultHandle proxy;
+            if (contextClass != null) {
+                proxy = create.newInstance(MethodDescriptor.ofConstructor(proxyClassName, String.class, contextClassName),
+                        create.getMethodParam(0), create.checkCast(create.getMethodParam(1), contextClassName));
+            } else {
+                proxy = create.newInstance(MethodDescriptor.ofConstructor(proxyClassName, String.class),
+                        create.getMethodParam(0));
+            }
+            create.invokeVirtualMethod(EVENT_COMMIT, event);
+            create.returnValue(proxy);
+        }
+    }
+
+    /**
+     * Generates {@code <interface>_CDI}, implementing the script interface by creating a new proxy for every
+     * invocation.
+     */
+    void generateCdiBean(ClassInfo scriptInterface, DotName contextClass, String scriptLocation, Set<String> excluded) {
+        String cdiBeanClassName = scriptInterface.name().toString() + "_CDI";
+        String proxyClassName = scriptInterface.name().toString() + "_Proxy";
+        String bundleLocation = ScriptInterfaceUtils.bundleLocation(scriptInterface.name().toString());
+
+        try (ClassCreator cdiBean = ClassCreator.builder()
+                .classOutput(classOutput)
+                .className(cdiBeanClassName)
+                .interfaces(scriptInterface.name().toString())
+                .build()) {
+            cdiBean.addAnnotation(ApplicationScoped.class);
+
+            FieldDescriptor contextField = null;
+            if (contextClass != null) {
+                FieldCreator contextFieldCreator = cdiBean.getFieldCreator("context", contextClass.toString());
+                contextFieldCreator.setModifiers(0);
+                contextFieldCreator.addAnnotation(Inject.class);
+                contextField = contextFieldCreator.getFieldDescriptor();
+            }
+
+            // private final ScriptInstanceMetrics _instances = ScriptInstanceMetrics.create(...), as in the beans
+            // generated by the annotation processor
+            FieldDescriptor instancesField = cdiBean.getFieldCreator("_instances", ScriptInstanceMetrics.class)
+                    .setModifiers(Modifier.PRIVATE | Modifier.FINAL)
+                    .getFieldDescriptor();
+            MethodCreator constructor = cdiBean.getMethodCreator(MethodDescriptor.ofConstructor(cdiBeanClassName));
+            constructor.invokeSpecialMethod(MethodDescriptor.ofConstructor(Object.class), constructor.getThis());
+            constructor.writeInstanceField(instancesField, constructor.getThis(),
+                    constructor.invokeStaticMethod(CREATE_METRICS, constructor.load(scriptInterface.name().toString())));
+            constructor.returnVoid();
+
+            for (MethodInfo method : interfaceMethods(scriptInterface)) {
+                if (excluded.contains(method.name())) {
+                    continue;
+                }
+
+                MethodCreator methodCreator = cdiBean.getMethodCreator(MethodDescriptor.of(method));
+                for (org.jboss.jandex.Type exception : method.exceptions()) {
+                    methodCreator.addException(exception.name().toString());
+                }
+
+                // Create the delegate proxy
+                ResultHandle scriptLibrary = methodCreator.invokeStaticMethod(LOAD_SCRIPT_LIBRARY,
+                        methodCreator.load(scriptLocation), methodCreator.load(bundleLocation));
+                ResultHandle instances = methodCreator.readInstanceField(instancesField, methodCreator.getThis());
+                methodCreator.invokeVirtualMethod(METRICS_SCRIPT_LOADED, instances, scriptLibrary);
+                ResultHandle instantiateEvent = beginInstantiateEvent(methodCreator, scriptInterface);
+                ResultHandle delegate;
+                if (contextField != null) {
+                    delegate = methodCreator.newInstance(
+                            MethodDescriptor.ofConstructor(proxyClassName, String.class, contextClass.toString()),
+                            scriptLibrary, methodCreator.readInstanceField(contextField, methodCreator.getThis()));
+                } else {
+                    delegate = methodCreator.newInstance(MethodDescriptor.ofConstructor(proxyClassName, String.class),
+                            scriptLibrary);
+                }
+                methodCreator.invokeVirtualMethod(EVENT_COMMIT, instantiateEvent);
+                methodCreator.invokeVirtualMethod(METRICS_OPENED, instances);
+
+                // Invoke the delegate, recording a JFR event and closing it whatever the outcome
+                boolean isVoid = method.returnType().kind() == org.jboss.jandex.Type.Kind.VOID;
+                AssignableResultHandle result = isVoid ? null
+                        : methodCreator.createVariable(DescriptorUtils.typeToString(method.returnType()));
+                ResultHandle[] args = new ResultHandle[method.parametersCount()];
+                for (int i = 0; i < args.length; i++) {
+                    args[i] = methodCreator.getMethodParam(i);
+                }
+
+                ResultHandle invokeEvent = methodCreator.newInstance(
+                        MethodDescriptor.ofConstructor(ScriptInvokeEvent.class, String.class, String.class),
+                        methodCreator.load(scriptInterface.name().toString()), methodCreator.load(method.name()));
+                methodCreator.invokeVirtualMethod(EVENT_BEGIN, invokeEvent);
+
+                TryBlock tryBlock = methodCreator.tryBlock();
+                ResultHandle value = tryBlock.invokeInterfaceMethod(MethodDescriptor.of(method), delegate, args);
+                if (!isVoid) {
+                    tryBlock.assign(result, value);
+                }
+                CatchBlockCreator catchBlock = tryBlock.addCatch(Throwable.class);
+                catchBlock.invokeVirtualMethod(EVENT_COMMIT, invokeEvent);
+                catchBlock.invokeInterfaceMethod(CLOSE, delegate);
+                catchBlock.invokeVirtualMethod(METRICS_CLOSED, instances);
+                catchBlock.throwException(catchBlock.getCaughtException());
+
+                methodCreator.invokeVirtualMethod(EVENT_COMMIT, invokeEvent);
+                methodCreator.invokeInterfaceMethod(CLOSE, delegate);
+                methodCreator.invokeVirtualMethod(METRICS_CLOSED, instances);
+                methodCreator.returnValue(result);
+            }
+        }
+    }
+
+    /**
+     * Returns the annotations used by a script interface (on the interface or its methods, inherited ones
+     * included) that a {@code _CDI} bean generated here would not implement, e.g. {@code @ScriptBulkhead}.
+     */
+    Set<String> unsupportedAnnotations(ClassInfo scriptInterface) {
+        Set<String> unsupported = new TreeSet<>();
+        collectUnsupportedAnnotations(scriptInterface, unsupported);
+        return unsupported;
+    }
+
+    private void collectUnsupportedAnnotations(ClassInfo scriptInterface, Set<String> unsupported) {
+        for (DotName annotation : PROCESSOR_ONLY_ANNOTATIONS) {
+            // Covers annotations on the interface itself and on its methods
+            if (scriptInterface.hasAnnotation(annotation)) {
+                unsupported.add("@" + annotation.withoutPackagePrefix());
+            }
+        }
+        for (DotName superInterfaceName : scriptInterface.interfaceNames()) {
+            ClassInfo superInterface = index.getClassByName(superInterfaceName);
+            if (superInterface != null) {
+                collectUnsupportedAnnotations(superInterface, unsupported);
+            }
+        }
+    }
+
+    private static ResultHandle beginInstantiateEvent(MethodCreator methodCreator, ClassInfo scriptInterface) {
+        ResultHandle event = methodCreator.newInstance(
+                MethodDescriptor.ofConstructor(ScriptInstantiateEvent.class, String.class),
+                methodCreator.load(scriptInterface.name().toString()));
+        methodCreator.invokeVirtualMethod(EVENT_BEGIN, event);
+        return event;
+    }
+
+    /**
+     * Returns the abstract and default methods of a script interface, including inherited ones.
+     */
+    private List<MethodInfo> interfaceMethods(ClassInfo scriptInterface) {
+        List<MethodInfo> methods = new ArrayList<>();
+        collectInterfaceMethods(scriptInterface, methods, new HashSet<>());
+        return methods;
+    }
+
+    private void collectInterfaceMethods(ClassInfo scriptInterface, List<MethodInfo> methods, Set<String> seen) {
+        for (MethodInfo method : scriptInterface.methods()) {
+            // Methods redeclared by a sub-interface are only implemented once
+            if (!Modifier.isStatic(method.flags()) && !method.isSynthetic()
+                    && seen.add(method.name() + MethodDescriptor.of(method).getDescriptor())) {
+                methods.add(method);
+            }
+        }
+        for (DotName superInterfaceName : scriptInterface.interfaceNames()) {
+            ClassInfo superInterface = index.getClassByName(superInterfaceName);
+            if (superInterface != null) {
+                collectInterfaceMethods(superInterface, methods, seen);
+            }
+        }
+    }
+}
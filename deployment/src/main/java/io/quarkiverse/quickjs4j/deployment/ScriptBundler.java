@@ -0,0 +1,411 @@
+package io.quarkiverse.quickjs4j.deployment;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Bundles a script and the ES modules it imports (through relative specifiers such as {@code ./lib.js})
+ * into a single script, and optionally minifies the result.
+ * <p>
+ * Every imported module is evaluated once, in dependency order, inside its own function scope, and its
+ * exports are returned as an object; the imports of the importing module are rewritten to read from that
+ * object. The entry script keeps its own exports, since those are the functions invoked through the
+ * script interface. Re-exports ({@code export { a } from './lib.js'}) include the target module and export
+ * the bindings read from it. Imported bindings are snapshots taken once the imported module has been
+ * evaluated, and circular imports are not supported.
+ */
+public class ScriptBundler {
+
+    private static final String IDENTIFIER = "[A-Za-z_$][\\w$]*";
+
+    private static final Pattern IMPORT_FROM = Pattern.compile(
+            "^[ \\t]*import\\s+([^'\";]+?)\\s+from\\s*['\"](\\.{1,2}/[^'\"]+)['\"][ \\t]*;?", Pattern.MULTILINE);
+    private static final Pattern IMPORT_SIDE_EFFECT = Pattern.compile(
+            "^[ \\t]*import\\s*['\"](\\.{1,2}/[^'\"]+)['\"][ \\t]*;?", Pattern.MULTILINE);
+    private static final Pattern EXPORT_DEFAULT_DECLARATION = Pattern.compile(
+            "^([ \\t]*)export\\s+default\\s+((?:async\\s+)?function\\*?|class)\\s+(" + IDENTIFIER + ")", Pattern.MULTILINE);
+    private static final Pattern EXPORT_DEFAULT = Pattern.compile(
+            "^([ \\t]*)export\\s+default\\s+", Pattern.MULTILINE);
+    private static final Pattern EXPORT_DECLARATION = Pattern.compile(
+            "^([ \\t]*)export\\s+((?:async\\s+)?function\\*?|class|const|let|var)\\s+(" + IDENTIFIER + ")",
+            Pattern.MULTILINE);
+    private static final Pattern EXPORT_FROM = Pattern.compile(
+            "^[ \\t]*export\\s*\\{([^}]*)\\}\\s*from\\s*['\"](\\.{1,2}/[^'\"]+)['\"][ \\t]*;?", Pattern.MULTILINE);
+    private static final Pattern EXPORT_LIST = Pattern.compile(
+            "^[ \\t]*export\\s*\\{([^}]*)\\}(?!\\s*from\\b)[ \\t]*;?", Pattern.MULTILINE);
+    private static final Pattern EXPORT_ANY = Pattern.compile("^[ \\t]*export\\b.*$", Pattern.MULTILINE);
+
+    private static final String DEFAULT_EXPORT_NAME = "__quickjs4j_default";
+    private static final String REEXPORT_NAME = "__quickjs4j_reexport_";
+
+    // Keywords after which a slash starts a regular expression literal rather than a division
+    private static final Set<String> KEYWORDS_BEFORE_EXPRESSION = Set.of(
+            "return", "typeof", "instanceof", "in", "of", "new", "delete", "void", "throw", "case", "do", "else",
+            "yield", "await");
+
+    private final Function<String, String> resourceLoader;
+    private final Map<String, String> moduleNames = new LinkedHashMap<>();
+    private final Set<String> inProgress = new HashSet<>();
+    private final StringBuilder modules = new StringBuilder();
+    private int reexports;
+
+    private ScriptBundler(Function<String, String> resourceLoader) {
+        this.resourceLoader = resourceLoader;
+    }
+
+    /**
+     * Bundles the script at the given location.
+     *
+     * @param location the location of the entry script
+     * @param source the source of the entry script
+     * @param resourceLoader loads the source of an imported module given its resolved location, or returns null
+     * @return the bundled script, or the unchanged source if it does not import any relative module
+     */
+    public static String bundle(String location, String source, Function<String, String> resourceLoader) {
+        ScriptBundler bundler = new ScriptBundler(resourceLoader);
+        String entry = bundler.rewriteImports(location, source);
+        return bundler.modules + entry;
+    }
+
+    /**
+     * Returns true if the given script imports other modules through relative specifiers.
+     */
+    public static boolean hasRelativeImports(String source) {
+        return IMPORT_FROM.matcher(source).find() || IMPORT_SIDE_EFFECT.matcher(source).find()
+                || EXPORT_FROM.matcher(source).find();
+    }
+
+    private String rewriteImports(String location, String source) {
+        // Re-exported bindings are read into fresh local names, exported as a plain list (kept at the start of
+        // the line so that imported modules rewrite it like their other export lists)
+        StringBuilder withoutReexports = new StringBuilder();
+        Matcher matcher = EXPORT_FROM.matcher(source);
+        while (matcher.find()) {
+            String moduleName = include(location, matcher.group(2));
+            StringBuilder bindings = new StringBuilder();
+            List<String> names = new ArrayList<>();
+            for (String specifier : matcher.group(1).split(",")) {
+                String[] parts = specifier.trim().split("\\s+as\\s+");
+                if (parts[0].isEmpty()) {
+                    continue;
+                }
+                String localName = REEXPORT_NAME + reexports++;
+                bindings.append("const ").append(localName).append(" = ").append(moduleName).append('.')
+                        .append(parts[0]).append(";");
+                names.add(localName + " as " + (parts.length == 2 ? parts[1] : parts[0]));
+            }
+            matcher.appendReplacement(withoutReexports,
+                    Matcher.quoteReplacement("export { " + String.join(", ", names) + " };" + bindings));
+        }
+        matcher.appendTail(withoutReexports);
+
+        StringBuilder rewritten = new StringBuilder();
+        matcher = IMPORT_FROM.matcher(withoutReexports);
+        while (matcher.find()) {
+            String moduleName = include(location, matcher.group(2));
+            matcher.appendReplacement(rewritten, Matcher.quoteReplacement(bindings(location, matcher.group(1), moduleName)));
+        }
+        matcher.appendTail(rewritten);
+
+        StringBuilder withoutSideEffectImports = new StringBuilder();
+        matcher = IMPORT_SIDE_EFFECT.matcher(rewritten);
+        while (matcher.find()) {
+            include(location, matcher.group(1));
+            matcher.appendReplacement(withoutSideEffectImports, "");
+        }
+        matcher.appendTail(withoutSideEffectImports);
+        return withoutSideEffectImports.toString();
+    }
+
+    /**
+     * Includes the imported module (and, first, its own dependencies) in the bundle and returns the name
+     * of the variable holding its exports.
+     */
+    private String include(String importerLocation, String specifier) {
+        String location = URI.create(importerLocation).resolve(specifier).normalize().toString();
+        String moduleName = moduleNames.get(location);
+        if (moduleName != null) {
+            return moduleName;
+        }
+        if (!inProgress.add(location)) {
+            throw new IllegalStateException("Circular import of " + location + " from " + importerLocation);
+        }
+
+        String source = resourceLoader.apply(location);
+        if (source == null) {
+            throw new IllegalStateException("Cannot resolve import '" + specifier + "' from " + importerLocation);
+        }
+
+        String body = rewriteImports(location, source);
+        List<String> exports = new ArrayList<>();
+        body = rewriteExports(location, body, exports);
+
+        moduleName = "__quickjs4j_module_" + moduleNames.size();
+        modules.append("// ").append(location).append("\n");
+        modules.append("const ").append(moduleName).append(" = (() => {\n");
+        modules.append(body);
+        if (!body.endsWith("\n")) {
+            modules.append("\n");
+        }
+        modules.append(exports.isEmpty() ? "return {};\n" : "return { " + String.join(", ", exports) + " };\n");
+        modules.append("})();\n");
+
+        inProgress.remove(location);
+        moduleNames.put(location, moduleName);
+        return moduleName;
+    }
+
+    private static String rewriteExports(String location, String body, List<String> exports) {
+        Matcher matcher = EXPORT_DEFAULT_DECLARATION.matcher(body);
+        StringBuilder rewritten = new StringBuilder();
+        while (matcher.find()) {
+            exports.add("default: " + matcher.group(3));
+            matcher.appendReplacement(rewritten, Matcher.quoteReplacement(matcher.group(1) + matcher.group(2) + " "
+                    + matcher.group(3)));
+        }
+        matcher.appendTail(rewritten);
+        body = rewritten.toString();
+
+        matcher = EXPORT_DEFAULT.matcher(body);
+        rewritten = new StringBuilder();
+        while (matcher.find()) {
+            exports.add("default: " + DEFAULT_EXPORT_NAME);
+            matcher.appendReplacement(rewritten, Matcher.quoteReplacement(matcher.group(1) + "const "
+                    + DEFAULT_EXPORT_NAME + " = "));
+        }
+        matcher.appendTail(rewritten);
+        body = rewritten.toString();
+
+        matcher = EXPORT_DECLARATION.matcher(body);
+        rewritten = new StringBuilder();
+        while (matcher.find()) {
+            if (!matcher.group(2).contains("function") && !matcher.group(2).equals("class")
+                    && declaresMore(body, matcher.end())) {
+                // Only the first binding would be exported
+                int end = body.indexOf('\n', matcher.end());
+                throw new IllegalStateException("Unsupported export in " + location + ": "
+                        + body.substring(matcher.start(), end < 0 ? body.length() : end).trim());
+            }
+            exports.add(matcher.group(3));
+            matcher.appendReplacement(rewritten, Matcher.quoteReplacement(matcher.group(1) + matcher.group(2) + " "
+                    + matcher.group(3)));
+        }
+        matcher.appendTail(rewritten);
+        body = rewritten.toString();
+
+        matcher = EXPORT_LIST.matcher(body);
+        rewritten = new StringBuilder();
+        while (matcher.find()) {
+            for (String specifier : matcher.group(1).split(",")) {
+                String[] parts = specifier.trim().split("\\s+as\\s+");
+                if (parts[0].isEmpty()) {
+                    continue;
+                }
+                exports.add(parts.length == 2 ? parts[1] + ": " + parts[0] : parts[0]);
+            }
+            matcher.appendReplacement(rewritten, "");
+        }
+        matcher.appendTail(rewritten);
+        body = rewritten.toString();
+
+        matcher = EXPORT_ANY.matcher(body);
+        if (matcher.find()) {
+            throw new IllegalStateException("Unsupported export in " + location + ": " + matcher.group().trim());
+        }
+        return body;
+    }
+
+    /**
+     * Returns true if the variable declaration continuing at the given index declares further bindings, i.e.
+     * has a comma outside of brackets and literals before the end of the statement.
+     */
+    private static boolean declaresMore(String body, int start) {
+        int depth = 0;
+        int i = start;
+        while (i < body.length()) {
+            char c = body.charAt(i);
+            if (c == '\'' || c == '"' || c == '`') {
+                i = copyLiteral(body, i, c, new StringBuilder());
+                continue;
+            }
+            if (depth == 0 && (c == ';' || c == '\n' || body.startsWith("//", i) || body.startsWith("/*", i))) {
+                return false;
+            } else if (c == '(' || c == '[' || c == '{') {
+                depth++;
+            } else if (c == ')' || c == ']' || c == '}') {
+                depth--;
+            } else if (c == ',' && depth == 0) {
+                return true;
+            }
+            i++;
+        }
+        return false;
+    }
+
+    private static String bindings(String location, String importClause, String moduleName) {
+        StringBuilder bindings = new StringBuilder();
+        String clause = importClause.trim();
+
+        // Default import, possibly followed by a namespace or named imports
+        Matcher defaultImport = Pattern.compile("^(" + IDENTIFIER + ")\\s*(,\\s*)?").matcher(clause);
+        if (defaultImport.find() && !clause.startsWith("{") && !clause.startsWith("*")) {
+            bindings.append("const ").append(defaultImport.group(1)).append(" = ").append(moduleName)
+                    .append(".default;");
+            clause = clause.substring(defaultImport.end()).trim();
+        }
+
+        if (clause.startsWith("*")) {
+            Matcher namespaceImport = Pattern.compile("^\\*\\s*as\\s+(" + IDENTIFIER + ")$").matcher(clause);
+            if (!namespaceImport.find()) {
+                throw new IllegalStateException("Unsupported import in " + location + ": " + importClause);
+            }
+            bindings.append("const ").append(namespaceImport.group(1)).append(" = ").append(moduleName).append(";");
+        } else if (clause.startsWith("{") && clause.endsWith("}")) {
+            List<String> names = new ArrayList<>();
+            for (String specifier : clause.substring(1, clause.length() - 1).split(",")) {
+                String[] parts = specifier.trim().split("\\s+as\\s+");
+                if (parts[0].isEmpty()) {
+                    continue;
+                }
+                names.add(parts.length == 2 ? parts[0] + ": " + parts[1] : parts[0]);
+            }
+            bindings.append("const { ").append(String.join(", ", names)).append(" } = ").append(moduleName).append(";");
+        } else if (!clause.isEmpty()) {
+            throw new IllegalStateException("Unsupported import in " + location + ": " + importClause);
+        }
+        return bindings.toString();
+    }
+
+    /**
+     * Removes comments, indentation, blank lines and redundant whitespace from a script. Line breaks are
+     * preserved so that automatic semicolon insertion keeps working, and string, template and regular
+     * expression literals are copied as-is.
+     */
+    public static String minify(String source) {
+        StringBuilder out = new StringBuilder(source.length());
+        int length = source.length();
+        int i = 0;
+        boolean pendingSpace = false;
+        while (i < length) {
+            char c = source.charAt(i);
+            if (c == '\n' || c == '\r') {
+                pendingSpace = false;
+                trimTrailingSpace(out);
+                if (out.length() > 0 && out.charAt(out.length() - 1) != '\n') {
+                    out.append('\n');
+                }
+                i++;
+            } else if (c == ' ' || c == '\t') {
+                pendingSpace = out.length() > 0 && out.charAt(out.length() - 1) != '\n';
+                i++;
+            } else if (c == '/' && i + 1 < length && source.charAt(i + 1) == '/') {
+                while (i < length && source.charAt(i) != '\n') {
+                    i++;
+                }
+            } else if (c == '/' && i + 1 < length && source.charAt(i + 1) == '*') {
+                int end = source.indexOf("*/", i + 2);
+                end = end < 0 ? length : end + 2;
+                if (source.substring(i, end).indexOf('\n') >= 0) {
+                    trimTrailingSpace(out);
+                    if (out.length() > 0 && out.charAt(out.length() - 1) != '\n') {
+                        out.append('\n');
+                    }
+                    pendingSpace = false;
+                } else {
+                    pendingSpace = out.length() > 0 && out.charAt(out.length() - 1) != '\n';
+                }
+                i = end;
+            } else {
+                if (pendingSpace) {
+                    out.append(' ');
+                    pendingSpace = false;
+                }
+                if (c == '\'' || c == '"' || c == '`') {
+                    i = copyLiteral(source, i, c, out);
+                } else if (c == '/' && isRegexContext(out)) {
+                    i = copyRegex(source, i, out);
+                } else {
+                    out.append(c);
+                    i++;
+                }
+            }
+        }
+        trimTrailingSpace(out);
+        if (out.length() > 0 && out.charAt(out.length() - 1) != '\n') {
+            out.append('\n');
+        }
+        return out.toString();
+    }
+
+    private static int copyLiteral(String source, int start, char quote, StringBuilder out) {
+        int i = start;
+        out.append(source.charAt(i++));
+        while (i < source.length()) {
+            char c = source.charAt(i++);
+            out.append(c);
+            if (c == '\\' && i < source.length()) {
+                out.append(source.charAt(i++));
+            } else if (c == quote) {
+                break;
+            }
+        }
+        return i;
+    }
+
+    private static int copyRegex(String source, int start, StringBuilder out) {
+        int i = start;
+        out.append(source.charAt(i++));
+        boolean inClass = false;
+        while (i < source.length()) {
+            char c = source.charAt(i++);
+            out.append(c);
+            if (c == '\\' && i < source.length()) {
+                out.append(source.charAt(i++));
+            } else if (c == '[') {
+                inClass = true;
+            } else if (c == ']') {
+                inClass = false;
+            } else if ((c == '/' && !inClass) || c == '\n') {
+                break;
+            }
+        }
+        return i;
+    }
+
+    /**
+     * Decides whether a slash starts a regular expression literal (rather than a division), based on the
+     * last significant token written so far.
+     */
+    private static boolean isRegexContext(StringBuilder out) {
+        int i = out.length() - 1;
+        while (i >= 0 && Character.isWhitespace(out.charAt(i))) {
+            i--;
+        }
+        if (i < 0) {
+            return true;
+        }
+        char last = out.charAt(i);
+        if (Character.isJavaIdentifierPart(last)) {
+            int end = i + 1;
+            while (i >= 0 && Character.isJavaIdentifierPart(out.charAt(i))) {
+                i--;
+            }
+            return KEYWORDS_BEFORE_EXPRESSION.contains(out.substring(i + 1, end));
+        }
+        return ")]}".indexOf(last) < 0 && last != '\'' && last != '"' && last != '`';
+    }
+
+    private static void trimTrailingSpace(StringBuilder out) {
+        while (out.length() > 0 && (out.charAt(out.length() - 1) == ' ' || out.charAt(out.length() - 1) == '\t')) {
+            out.setLength(out.length() - 1);
+        }
+    }
+}
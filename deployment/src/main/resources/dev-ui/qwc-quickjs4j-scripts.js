@@ -0,0 +1,152 @@
+import { LitElement, html, css } from 'lit';
+import { JsonRpc } from 'jsonrpc';
+import { scriptInterfaces } from 'build-time-data';
+import '@vaadin/button';
+import '@vaadin/details';
+import '@vaadin/grid';
+import { columnBodyRenderer } from '@vaadin/grid/lit.js';
+import '@qomponent/qui-code-block';
+
+/**
+ * Lists the script interfaces of the application with their live instances, bulkhead, invocation latencies
+ * and compile times, refreshed every couple of seconds.
+ */
+export class QwcQuickjs4jScripts extends LitElement {
+
+    jsonRpc = new JsonRpc(this);
+
+    static styles = css`
+        :host {
+            display: flex;
+            flex-direction: column;
+            gap: 10px;
+            padding: 10px;
+        }
+        .toolbar {
+            display: flex;
+            justify-content: flex-end;
+        }
+        .stats {
+            display: flex;
+            flex-wrap: wrap;
+            gap: 20px;
+            padding-bottom: 10px;
+        }
+        .stat {
+            display: flex;
+            flex-direction: column;
+        }
+        .label {
+            color: var(--lumo-contrast-60pct);
+            font-size: var(--lumo-font-size-s);
+        }
+        .summary {
+            display: flex;
+            gap: 20px;
+        }
+        .location {
+            color: var(--lumo-contrast-60pct);
+        }
+    `;
+
+    static properties = {
+        _live: { state: true }
+    };
+
+    constructor() {
+        super();
+        this._live = new Map();
+    }
+
+    connectedCallback() {
+        super.connectedCallback();
+        this._refresh();
+        this._interval = setInterval(() => this._refresh(), 2000);
+    }
+
+    disconnectedCallback() {
+        clearInterval(this._interval);
+        super.disconnectedCallback();
+    }
+
+    _refresh() {
+        this.jsonRpc.getScriptInterfaces().then(jsonRpcResponse => {
+            this._live = new Map(jsonRpcResponse.result.map(scriptInterface => [scriptInterface.name, scriptInterface]));
+        });
+    }
+
+    _reset() {
+        this.jsonRpc.reset().then(() => this._refresh());
+    }
+
+    render() {
+        return html`
+            <div class="toolbar">
+                <vaadin-button theme="tertiary" @click=${() => this._reset()}>Reset latencies</vaadin-button>
+            </div>
+            ${scriptInterfaces.map(scriptInterface => this._renderScriptInterface(scriptInterface))}`;
+    }
+
+    _renderScriptInterface(scriptInterface) {
+        const live = this._live.get(scriptInterface.name) || { methods: [] };
+        return html`
+            <vaadin-details theme="filled">
+                <div slot="summary" class="summary">
+                    <code>${scriptInterface.name}</code>
+                    <span class="location">${scriptInterface.location || 'factory only'}</span>
+                </div>
+                <div class="stats">
+                    ${this._stat('Live instances', live.liveInstances)}
+                    ${this._stat('Peak instances', live.peakInstances)}
+                    ${this._stat('Created instances', live.createdCount)}
+                    ${this._stat('Estimated memory', this._bytes(live.estimatedMemoryBytes))}
+                    ${this._stat('Bulkhead', this._bulkhead(live.bulkhead))}
+                    ${this._stat('Cold compile', this._millis(live.coldCompileMillis))}
+                    ${this._stat('Warm compile (mean / p99)', live.warmCompiles
+                        ? `${this._millis(live.warmCompiles.meanMillis)} / ${this._millis(live.warmCompiles.p99Millis)}`
+                        : undefined)}
+                </div>
+                <vaadin-grid .items=${live.methods} theme="row-stripes" all-rows-visible>
+                    <vaadin-grid-column header="Method" path="method"></vaadin-grid-column>
+                    <vaadin-grid-column header="Invocations" path="count"></vaadin-grid-column>
+                    <vaadin-grid-column header="Mean"
+                        ${columnBodyRenderer(method => html`${this._millis(method.meanMillis)}`, [])}></vaadin-grid-column>
+                    <vaadin-grid-column header="p50"
+                        ${columnBodyRenderer(method => html`${this._millis(method.p50Millis)}`, [])}></vaadin-grid-column>
+                    <vaadin-grid-column header="p95"
+                        ${columnBodyRenderer(method => html`${this._millis(method.p95Millis)}`, [])}></vaadin-grid-column>
+                    <vaadin-grid-column header="p99"
+                        ${columnBodyRenderer(method => html`${this._millis(method.p99Millis)}`, [])}></vaadin-grid-column>
+                </vaadin-grid>
+                ${scriptInterface.typeDefinitions ? html`
+                    <vaadin-details summary="${scriptInterface.typeDefinitionsLocation}">
+                        <qui-code-block mode="js" content="${scriptInterface.typeDefinitions}"></qui-code-block>
+                    </vaadin-details>` : ''}
+            </vaadin-details>`;
+    }
+
+    _stat(label, value) {
+        return html`
+            <div class="stat">
+                <span class="label">${label}</span>
+                <span>${value === undefined || value === null ? '-' : value}</span>
+            </div>`;
+    }
+
+    _bulkhead(bulkhead) {
+        if (!bulkhead) {
+            return undefined;
+        }
+        const limit = bulkhead.adaptive ? `${bulkhead.limit} (adaptive)` : bulkhead.limit;
+        return `${bulkhead.active} active / ${limit}, ${bulkhead.queued} queued, ${bulkhead.rejections} rejected`;
+    }
+
+    _millis(millis) {
+        return millis === undefined || millis === null ? undefined : `${millis.toFixed(2)} ms`;
+    }
+
+    _bytes(bytes) {
+        return bytes === undefined || bytes === null ? undefined : `${(bytes / (1024 * 1024)).toFixed(1)} MiB`;
+    }
+}
+customElements.define('qwc-quickjs4j-scripts', QwcQuickjs4jScripts);
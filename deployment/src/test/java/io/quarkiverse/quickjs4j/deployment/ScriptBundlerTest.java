@@ -0,0 +1,76 @@
+package io.quarkiverse.quickjs4j.deployment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+public class ScriptBundlerTest {
+
+    private static final String ENTRY = "file:/scripts/calculator.js";
+
+    @Test
+    public void testReexportFromImportedModule() {
+        String bundle = ScriptBundler.bundle(ENTRY, """
+                import { divide, half } from './lib/index.js';
+                export function run(a, b) { return divide(a, b) + half(a); }
+                """, Map.of(
+                "file:/scripts/lib/index.js", "export { divide, divide as half } from './division.js';\n",
+                "file:/scripts/lib/division.js", "export function divide(a, b) { return a / b; }\n")::get);
+
+        assertFalse(bundle.contains("from './division.js'"), bundle);
+        assertTrue(bundle.indexOf("// file:/scripts/lib/division.js") < bundle.indexOf("// file:/scripts/lib/index.js"),
+                "The re-exported module should be evaluated first: " + bundle);
+        assertTrue(bundle.contains("const __quickjs4j_reexport_0 = __quickjs4j_module_0.divide;"), bundle);
+        assertTrue(bundle.contains("const __quickjs4j_reexport_1 = __quickjs4j_module_0.divide;"), bundle);
+        assertTrue(bundle.contains("return { divide: __quickjs4j_reexport_0, half: __quickjs4j_reexport_1 };"), bundle);
+    }
+
+    @Test
+    public void testReexportFromEntryScript() {
+        String source = "export { divide } from './division.js';\n";
+        assertTrue(ScriptBundler.hasRelativeImports(source));
+
+        String bundle = ScriptBundler.bundle(ENTRY, source,
+                Map.of("file:/scripts/division.js", "export function divide(a, b) { return a / b; }\n")::get);
+        assertTrue(bundle.contains("export { __quickjs4j_reexport_0 as divide };"
+                + "const __quickjs4j_reexport_0 = __quickjs4j_module_0.divide;"), bundle);
+    }
+
+    @Test
+    public void testUnsupportedReexportFailsTheBuild() {
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> ScriptBundler.bundle(ENTRY, "import { divide } from './lib.js';\n",
+                        Map.of("file:/scripts/lib.js", "export * from './division.js';\n")::get));
+        assertTrue(e.getMessage().startsWith("Unsupported export"), e.getMessage());
+
+        // Re-exports of non-relative modules cannot be resolved by the bundler
+        e = assertThrows(IllegalStateException.class,
+                () -> ScriptBundler.bundle(ENTRY, "import { divide } from './lib.js';\n",
+                        Map.of("file:/scripts/lib.js", "export { divide } from 'division';\n")::get));
+        assertTrue(e.getMessage().startsWith("Unsupported export"), e.getMessage());
+    }
+
+    @Test
+    public void testMultipleDeclaratorExportFailsTheBuild() {
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> ScriptBundler.bundle(ENTRY, "import { a, b } from './lib.js';\n",
+                        Map.of("file:/scripts/lib.js", "export const a = 1, b = 2;\n")::get));
+        assertEquals("Unsupported export in file:/scripts/lib.js: export const a = 1, b = 2;", e.getMessage());
+    }
+
+    @Test
+    public void testSingleDeclaratorExportWithCommas() {
+        String bundle = ScriptBundler.bundle(ENTRY, "import { add, pair, label } from './lib.js';\n",
+                Map.of("file:/scripts/lib.js", """
+                        export const add = (a, b) => a + b;
+                        export const pair = [1, { x: 2, y: 3 }];
+                        export let label = 'a, b'; // a, b
+                        """)::get);
+        assertTrue(bundle.contains("return { add, pair, label };"), bundle);
+    }
+}
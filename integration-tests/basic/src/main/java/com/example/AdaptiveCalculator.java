@@ -0,0 +1,12 @@
+package com.example;
+
+import io.quarkiverse.quickjs4j.annotations.ScriptBulkhead;
+import io.quarkiverse.quickjs4j.annotations.ScriptImplementation;
+import io.roastedroot.quickjs4j.annotations.ScriptInterface;
+
+@ScriptInterface
+@ScriptImplementation(location = "slowCalculator.js")
+@ScriptBulkhead(adaptive = true, minConcurrent = 1, maxConcurrent = 4, maxQueued = 10, maxQueueTimeMillis = 5000)
+public interface AdaptiveCalculator {
+    int slowSquare(int n, int millis);
+}
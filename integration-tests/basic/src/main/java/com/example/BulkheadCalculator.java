@@ -0,0 +1,12 @@
+package com.example;
+
+import io.quarkiverse.quickjs4j.annotations.ScriptBulkhead;
+import io.quarkiverse.quickjs4j.annotations.ScriptImplementation;
+import io.roastedroot.quickjs4j.annotations.ScriptInterface;
+
+@ScriptInterface
+@ScriptImplementation(location = "slowCalculator.js")
+@ScriptBulkhead(maxConcurrent = 1, maxQueued = 1, maxQueueTimeMillis = 50)
+public interface BulkheadCalculator {
+    int slowSquare(int n, int millis);
+}
@@ -0,0 +1,12 @@
+package com.example;
+
+import io.quarkiverse.quickjs4j.annotations.ScriptImplementation;
+import io.roastedroot.quickjs4j.annotations.ScriptInterface;
+
+@ScriptInterface
+@ScriptImplementation(location = "bundledCalculator.js")
+public interface BundledCalculator {
+    int add(int a, int b);
+
+    double divide(double a, double b);
+}
@@ -0,0 +1,15 @@
+package com.example;
+
+import io.quarkiverse.quickjs4j.annotations.ScriptCacheable;
+import io.quarkiverse.quickjs4j.annotations.ScriptImplementation;
+import io.roastedroot.quickjs4j.annotations.ScriptInterface;
+
+@ScriptInterface
+@ScriptImplementation(location = "cachedCalculator.js")
+public interface CachedCalculator {
+    @ScriptCacheable(maxSize = 100)
+    int multiply(int a, int b);
+
+    @ScriptCacheable(maxSize = 100)
+    int sum(int[] values);
+}
@@ -0,0 +1,12 @@
+package com.example;
+
+import io.quarkiverse.quickjs4j.annotations.ScriptCoalesced;
+import io.quarkiverse.quickjs4j.annotations.ScriptImplementation;
+import io.roastedroot.quickjs4j.annotations.ScriptInterface;
+
+@ScriptInterface
+@ScriptImplementation(location = "slowCalculator.js")
+public interface CoalescedCalculator {
+    @ScriptCoalesced
+    int slowSquare(int n, int millis);
+}
@@ -0,0 +1,9 @@
+import { divide } from './lib/division.js';
+
+function add(a, b) {
+    return a + b;
+}
+
+export {
+  add, divide
+};
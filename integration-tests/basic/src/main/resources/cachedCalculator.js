@@ -0,0 +1,11 @@
+function multiply(a, b) {
+    return a * b;
+}
+
+function sum(values) {
+    return values.reduce((total, value) => total + value, 0);
+}
+
+export {
+  multiply, sum
+};
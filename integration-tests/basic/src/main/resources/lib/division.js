@@ -0,0 +1,7 @@
+// Imported by bundledCalculator.js, bundled into a single script at build time
+export function divide(a, b) {
+    if (b === 0) {
+        throw new Error("Division by zero");
+    }
+    return a / b;
+}
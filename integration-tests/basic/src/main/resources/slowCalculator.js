@@ -0,0 +1,11 @@
+// Busy-waits for the given time, so that concurrent calls overlap
+function slowSquare(n, millis) {
+    const end = Date.now() + millis;
+    while (Date.now() < end) {
+    }
+    return n * n;
+}
+
+export {
+  slowSquare
+};
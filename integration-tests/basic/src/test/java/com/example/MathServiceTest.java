@@ -2,10 +2,23 @@ package com.example;
 
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
 
 import org.junit.jupiter.api.Test;
 
+import io.quarkiverse.quickjs4j.util.ScriptInstanceMetrics;
+import io.quarkus.test.junit.DisabledOnIntegrationTest;
 import io.quarkus.test.junit.QuarkusTest;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 
 @QuarkusTest
 public class MathServiceTest {
@@ -17,4 +30,51 @@ public class MathServiceTest {
                 .statusCode(200)
                 .body(is("41"));
     }
+
+    @Test
+    @DisabledOnIntegrationTest
+    public void testInstanceMetrics() {
+        given().when()
+                .get("/math")
+                .then()
+                .statusCode(200);
+
+        ScriptInstanceMetrics.Snapshot snapshot = ScriptInstanceMetrics.snapshot().get("com.example.Calculator");
+        assertNotNull(snapshot, "Instance metrics should be registered for Calculator");
+        assertTrue(snapshot.getCreatedCount() > 0, "Calls to Calculator should create script instances");
+        assertEquals(0, snapshot.getLiveInstances(), "Script instances should be closed after each call");
+        assertTrue(snapshot.getPeakInstances() > 0);
+    }
+
+    @Test
+    @DisabledOnIntegrationTest
+    public void testFlightRecorderEvents() throws IOException {
+        Path recordingFile = Files.createTempFile("quickjs4j", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("io.quarkiverse.quickjs4j.ScriptInstantiate");
+            recording.enable("io.quarkiverse.quickjs4j.ScriptInvoke");
+            recording.start();
+
+            given().when()
+                    .get("/math")
+                    .then()
+                    .statusCode(200)
+                    .body(is("41"));
+
+            recording.stop();
+            recording.dump(recordingFile);
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(recordingFile);
+            assertTrue(events.stream().anyMatch(event -> event.getEventType().getName()
+                    .equals("io.quarkiverse.quickjs4j.ScriptInstantiate")
+                    && event.getString("scriptInterface").equals("com.example.Calculator")),
+                    "A script instantiation event should be recorded for Calculator");
+            assertTrue(events.stream().anyMatch(event -> event.getEventType().getName()
+                    .equals("io.quarkiverse.quickjs4j.ScriptInvoke")
+                    && event.getString("method").equals("add")),
+                    "A script invocation event should be recorded for Calculator.add");
+        } finally {
+            Files.deleteIfExists(recordingFile);
+        }
+    }
 }
@@ -0,0 +1,187 @@
+package com.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import jakarta.inject.Inject;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkiverse.quickjs4j.ScriptRejectedException;
+import io.quarkiverse.quickjs4j.util.ScriptCallCoalescer;
+import io.quarkiverse.quickjs4j.util.ScriptConcurrencyLimiter;
+import io.quarkiverse.quickjs4j.util.ScriptInstanceMetrics;
+import io.quarkiverse.quickjs4j.util.ScriptInterfaceUtils;
+import io.quarkiverse.quickjs4j.util.ScriptResultCache;
+import io.quarkus.test.junit.QuarkusTest;
+
+/**
+ * Exercises the generated CDI bean features, each on a dedicated script interface so that the
+ * {@link Calculator} fixture keeps testing the plain invocation path.
+ */
+@QuarkusTest
+public class ScriptFeaturesTest {
+
+    @Inject
+    CachedCalculator cachedCalculator;
+
+    @Inject
+    BulkheadCalculator bulkheadCalculator;
+
+    @Inject
+    AdaptiveCalculator adaptiveCalculator;
+
+    @Inject
+    CoalescedCalculator coalescedCalculator;
+
+    @Inject
+    BundledCalculator bundledCalculator;
+
+    @Test
+    public void testCacheHitSkipsScriptEngine() {
+        assertEquals(35, cachedCalculator.multiply(5, 7));
+        ScriptResultCache cache = ScriptResultCache.caches().get("com.example.CachedCalculator.multiply");
+        assertNotNull(cache, "A result cache should be registered for CachedCalculator.multiply");
+        ScriptInstanceMetrics instances = ScriptInstanceMetrics.metrics().get("com.example.CachedCalculator");
+        long created = instances.getCreatedCount();
+        long hits = cache.getHitCount();
+
+        assertEquals(35, cachedCalculator.multiply(5, 7));
+        assertEquals(hits + 1, cache.getHitCount(), "The repeated call should hit the cache");
+        assertEquals(created, instances.getCreatedCount(), "A cache hit should not instantiate the script");
+    }
+
+    @Test
+    public void testCacheKeyCopiesArguments() {
+        int[] values = { 1, 2, 3 };
+        assertEquals(6, cachedCalculator.sum(values));
+        ScriptResultCache cache = ScriptResultCache.caches().get("com.example.CachedCalculator.sum");
+
+        // Reusing the argument array must neither corrupt the first entry nor hit it
+        values[0] = 10;
+        assertEquals(15, cachedCalculator.sum(values));
+        long hits = cache.getHitCount();
+        assertEquals(6, cachedCalculator.sum(new int[] { 1, 2, 3 }));
+        assertEquals(hits + 1, cache.getHitCount(), "The first entry should still be found by its arguments");
+    }
+
+    @Test
+    public void testBulkheadRejectsCallsBeyondQueue() throws Exception {
+        // One call runs, one waits (and times out), the others find the queue full
+        List<Object> outcomes = runConcurrently(4, () -> bulkheadCalculator.slowSquare(3, 500));
+
+        assertTrue(outcomes.contains(9), "The admitted call should complete: " + outcomes);
+        assertTrue(outcomes.stream().anyMatch(ScriptRejectedException.class::isInstance),
+                "Calls beyond the limit and queue should be rejected: " + outcomes);
+        ScriptConcurrencyLimiter limiter = ScriptConcurrencyLimiter.limiters().get("com.example.BulkheadCalculator");
+        assertTrue(limiter.getRejectionCount() > 0);
+        assertEquals(0, limiter.getActiveCount(), "All slots should be released");
+    }
+
+    @Test
+    public void testAdaptiveBulkheadFollowsLoad() throws Exception {
+        assertEquals(1, adaptiveCalculator.slowSquare(1, 0));
+        ScriptConcurrencyLimiter limiter = ScriptConcurrencyLimiter.limiters().get("com.example.AdaptiveCalculator");
+        assertTrue(limiter.isAdaptive());
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        assumeTrue(os.getSystemLoadAverage() < os.getAvailableProcessors(),
+                "The limit only grows while the CPU is not saturated");
+
+        // Callers queue behind the single initial slot, so the limit grows (on release once the adjustment
+        // interval has elapsed, or when adjusting explicitly)
+        long increases = limiter.getIncreaseCount();
+        List<Object> outcomes = runConcurrently(4, () -> adaptiveCalculator.slowSquare(3, 100));
+        assertEquals(List.of(9, 9, 9, 9), outcomes);
+        if (limiter.getIncreaseCount() == increases) {
+            limiter.adjust();
+        }
+        assertTrue(limiter.getIncreaseCount() > increases, "The limit should grow under load");
+        assertTrue(limiter.getLimit() > 1 && limiter.getLimit() <= 4,
+                "The limit should stay within bounds: " + limiter.getLimit());
+
+        // Without load, the limit shrinks back one slot at a time
+        long decreases = limiter.getDecreaseCount();
+        for (int i = 0; i < 10 && limiter.getLimit() > 1; i++) {
+            limiter.adjust();
+        }
+        assertEquals(1, limiter.getLimit(), "The limit should shrink back to minConcurrent when idle");
+        assertTrue(limiter.getDecreaseCount() > decreases);
+        assertEquals(0, limiter.getActiveCount());
+    }
+
+    @Test
+    public void testConcurrentIdenticalCallsShareOneExecution() throws Exception {
+        List<Object> outcomes = runConcurrently(4, () -> coalescedCalculator.slowSquare(4, 300));
+
+        assertEquals(List.of(16, 16, 16, 16), outcomes);
+        ScriptCallCoalescer coalescer = ScriptCallCoalescer.coalescers().get("com.example.CoalescedCalculator.slowSquare");
+        assertNotNull(coalescer, "A call coalescer should be registered for CoalescedCalculator.slowSquare");
+        assertTrue(coalescer.getExecutionCount() < 4,
+                "Overlapping calls should share an execution: " + coalescer.getExecutionCount());
+        assertTrue(coalescer.getCoalescedCount() > 0);
+        assertEquals(0, coalescer.getInFlightCount(), "Completed calls should no longer be tracked");
+    }
+
+    @Test
+    public void testScriptBundleGenerated() {
+        URL bundleUrl = Thread.currentThread().getContextClassLoader()
+                .getResource(ScriptInterfaceUtils.bundleLocation("com.example.BundledCalculator"));
+        assertNotNull(bundleUrl, "Script bundle should be generated for BundledCalculator");
+
+        String bundle = ScriptInterfaceUtils.loadScriptLibrary(bundleUrl);
+        assertFalse(bundle.contains("import "), "Bundle should not contain relative imports");
+        assertTrue(bundle.contains("function divide"), "Bundle should include the imported module");
+        assertTrue(bundle.contains("// Imported by"), "Bundle should not be minified by default");
+        assertEquals(2.5, bundledCalculator.divide(10, 4));
+
+        // Scripts without imports are loaded as-is unless minification is enabled
+        assertNull(Thread.currentThread().getContextClassLoader()
+                .getResource(ScriptInterfaceUtils.bundleLocation("com.example.Calculator")));
+    }
+
+    /**
+     * Runs the given call from the given number of threads at once, and returns the outcome (result or
+     * exception) of every call.
+     */
+    private static List<Object> runConcurrently(int threads, Callable<Object> call) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Object>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return call.call();
+                }));
+            }
+            start.countDown();
+            List<Object> outcomes = new ArrayList<>();
+            for (Future<Object> future : futures) {
+                try {
+                    outcomes.add(future.get());
+                } catch (ExecutionException e) {
+                    outcomes.add(e.getCause());
+                }
+            }
+            return outcomes;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
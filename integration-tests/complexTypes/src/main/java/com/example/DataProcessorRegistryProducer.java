@@ -0,0 +1,33 @@
+package com.example;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Disposes;
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Singleton;
+
+import io.quarkiverse.quickjs4j.ScriptInstanceRegistry;
+import io.quarkiverse.quickjs4j.ScriptInterfaceFactory;
+import io.quarkiverse.quickjs4j.util.ScriptInterfaceUtils;
+
+/**
+ * Produces a per-tenant registry of DataProcessor instances.
+ */
+@ApplicationScoped
+public class DataProcessorRegistryProducer {
+
+    @Produces
+    @Singleton
+    ScriptInstanceRegistry<DataProcessor, DataProcessorContext> dataProcessorRegistry(
+            ScriptInterfaceFactory<DataProcessor, DataProcessorContext> factory, DataProcessorContext context) {
+        // Every tenant uses the same script here; a real application would load it from a database
+        ScriptInstanceRegistry<DataProcessor, DataProcessorContext> registry = new ScriptInstanceRegistry<>(factory,
+                context, tenantId -> ScriptInterfaceUtils.loadScriptLibrary("dataProcessor.js"), 64L * 1024 * 1024);
+        // Close the instances of tenants that have been inactive for 5 minutes, checking every minute
+        registry.startMaintenance(300_000, 60_000);
+        return registry;
+    }
+
+    void closeDataProcessorRegistry(@Disposes ScriptInstanceRegistry<DataProcessor, DataProcessorContext> registry) {
+        registry.close();
+    }
+}
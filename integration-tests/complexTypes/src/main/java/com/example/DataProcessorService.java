@@ -3,9 +3,11 @@ package com.example;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.core.MediaType;
 
+import io.quarkiverse.quickjs4j.ScriptInstanceRegistry;
 import io.quarkiverse.quickjs4j.ScriptInterfaceFactory;
 import io.quarkiverse.quickjs4j.util.ScriptInterfaceUtils;
 
@@ -21,6 +23,9 @@ public class DataProcessorService {
     @Inject
     DataProcessorContext context;
 
+    @Inject
+    ScriptInstanceRegistry<DataProcessor, DataProcessorContext> dataProcessorRegistry;
+
     /**
      * Test endpoint that creates a person and processes it.
      *
@@ -36,4 +41,20 @@ public class DataProcessorService {
         Person person = processor.createPerson("Alice", 30, "123 Main St", "Springfield", "12345");
         return processor.processPerson(person);
     }
+
+    /**
+     * Test endpoint that processes a person with the script of the given tenant.
+     *
+     * @param tenantId the tenant ID
+     * @return the calculation result
+     */
+    @GET
+    @Path("/tenant/{tenantId}/process")
+    @Produces(MediaType.APPLICATION_JSON)
+    public CalculationResult processTenantPerson(@PathParam("tenantId") String tenantId) {
+        return dataProcessorRegistry.execute(tenantId, processor -> {
+            Person person = processor.createPerson("Alice", 30, "123 Main St", "Springfield", "12345");
+            return processor.processPerson(person);
+        });
+    }
 }
@@ -3,17 +3,35 @@ package com.example;
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.BufferedReader;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import jakarta.inject.Inject;
+
 import org.junit.jupiter.api.Test;
 
+import io.quarkiverse.quickjs4j.ScriptInstanceRegistry;
+import io.quarkiverse.quickjs4j.ScriptInterfaceFactory;
+import io.quarkiverse.quickjs4j.ScriptMemoryBudget;
+import io.quarkiverse.quickjs4j.ScriptRejectedException;
+import io.quarkiverse.quickjs4j.annotations.ScriptPriority;
+import io.quarkiverse.quickjs4j.util.ScriptConcurrencyLimiter;
+import io.quarkiverse.quickjs4j.util.ScriptInterfaceUtils;
+import io.quarkus.test.junit.DisabledOnIntegrationTest;
 import io.quarkus.test.junit.QuarkusTest;
 
 /**
@@ -22,6 +40,15 @@ import io.quarkus.test.junit.QuarkusTest;
 @QuarkusTest
 public class DataProcessorTest {
 
+    @Inject
+    ScriptInstanceRegistry<DataProcessor, DataProcessorContext> dataProcessorRegistry;
+
+    @Inject
+    ScriptInterfaceFactory<DataProcessor, DataProcessorContext> dataProcessorFactory;
+
+    @Inject
+    DataProcessorContext dataProcessorContext;
+
     @Test
     public void testProcessPerson() {
         given()
@@ -34,6 +61,209 @@ public class DataProcessorTest {
                 .body("tags", notNullValue());
     }
 
+    @Test
+    public void testProcessTenantPerson() {
+        for (String tenantId : new String[] { "tenant-a", "tenant-b", "tenant-a" }) {
+            given()
+                    .when().get("/data-processor/tenant/" + tenantId + "/process")
+                    .then()
+                    .statusCode(200)
+                    .body("message", containsString("Alice"))
+                    .body("message", containsString("Springfield"));
+        }
+
+        ScriptInstanceRegistry.Stats stats = dataProcessorRegistry.stats().get("tenant-a");
+        assertNotNull(stats, "Registry should hold warm instances for tenant-a");
+        assertEquals(1, stats.getMisses(), "tenant-a script should only be compiled once");
+        assertEquals(1, stats.getHits(), "second tenant-a call should reuse the warm instance");
+    }
+
+    @Test
+    public void testEvictIdleTenantInstances() {
+        given()
+                .when().get("/data-processor/tenant/tenant-c/process")
+                .then()
+                .statusCode(200);
+        assertNotNull(dataProcessorRegistry.stats().get("tenant-c"));
+
+        assertTrue(dataProcessorRegistry.evictIdle(0) > 0, "Idle tenant-c instance should be closed");
+        assertNull(dataProcessorRegistry.stats().get("tenant-c"), "tenant-c should no longer hold instances");
+    }
+
+    @Test
+    @DisabledOnIntegrationTest
+    public void testUnknownScriptIdLeavesNoEntry() throws Exception {
+        try (var registry = newRegistry(scriptId -> scriptId.startsWith("tenant-")
+                ? ScriptInterfaceUtils.loadScriptLibrary("dataProcessor.js")
+                : null)) {
+            for (int i = 0; i < 3; i++) {
+                String scriptId = "unknown-" + i;
+                assertThrows(IllegalArgumentException.class,
+                        () -> registry.execute(scriptId, DataProcessorTest::createAlice));
+            }
+            assertTrue(registry.stats().isEmpty(), "Failed script IDs should not be tracked: " + registry.stats());
+
+            registry.execute("tenant-a", DataProcessorTest::createAlice);
+            Path warmSet = Files.createTempDirectory("quickjs4j").resolve("warm-set.txt");
+            registry.writeWarmSet(warmSet);
+            assertEquals(List.of("tenant-a"), Files.readAllLines(warmSet));
+        }
+    }
+
+    @Test
+    @DisabledOnIntegrationTest
+    public void testSharedMemoryBudget() {
+        // Room for a single warm instance, shared by two registries
+        ScriptMemoryBudget budget = new ScriptMemoryBudget(ScriptInstanceRegistry.DEFAULT_INSTANCE_BYTES + 64 * 1024);
+        try (var first = newRegistry(budget); var second = newRegistry(budget)) {
+            first.execute("tenant-a", DataProcessorTest::createAlice);
+            assertEquals(0, budget.getEvictionCount());
+
+            second.execute("tenant-b", DataProcessorTest::createBob);
+            assertEquals(1, budget.getEvictionCount(), "The least recently used instance should be evicted");
+            assertNull(first.stats().get("tenant-a"), "The instance of the first registry should be closed");
+            assertNotNull(second.stats().get("tenant-b"));
+            assertTrue(budget.getTotalWeight() <= budget.getMaxWeight());
+        }
+    }
+
+    @Test
+    @DisabledOnIntegrationTest
+    public void testCloseWhileInstanceInUse() {
+        ScriptMemoryBudget budget = new ScriptMemoryBudget(64L * 1024 * 1024);
+        var registry = newRegistry(budget);
+        registry.execute("tenant-a", DataProcessorTest::createAlice);
+
+        // Closing only subtracts the idle instance, the leased one is subtracted when released
+        Person person = registry.execute("tenant-b", processor -> {
+            registry.close();
+            assertTrue(registry.getTotalWeight() > 0, "The leased instance should still be accounted for");
+            assertEquals(registry.getTotalWeight(), budget.getTotalWeight());
+            return createBob(processor);
+        });
+        assertEquals("Bob", person.getName());
+        assertEquals(0, registry.getTotalWeight());
+        assertEquals(0, budget.getTotalWeight());
+    }
+
+    @Test
+    @DisabledOnIntegrationTest
+    public void testPriorityLanes() {
+        // Two slots, one of which is reserved for interactive calls
+        ScriptConcurrencyLimiter limiter = ScriptConcurrencyLimiter.create("com.example.DataProcessorTest.lanes", 2, 10, 100,
+                0.5);
+        try (var registry = newRegistry()) {
+            registry.setConcurrencyLimiter(limiter);
+
+            // A batch call holds the batch share, and the reserved slot cannot be borrowed
+            limiter.acquire(ScriptPriority.Level.BATCH);
+            try {
+                assertThrows(ScriptRejectedException.class,
+                        () -> registry.execute("tenant-a", ScriptPriority.Level.BATCH, DataProcessorTest::createBob));
+
+                Person person = registry.execute("tenant-a", ScriptPriority.Level.INTERACTIVE,
+                        DataProcessorTest::createAlice);
+                assertEquals("Alice", person.getName());
+            } finally {
+                limiter.release(ScriptPriority.Level.BATCH);
+            }
+            assertEquals(0, limiter.getActiveCount());
+        }
+    }
+
+    @Test
+    @DisabledOnIntegrationTest
+    public void testReservedShareIsNeverBorrowed() {
+        // Four slots, two of which are reserved for interactive calls
+        ScriptConcurrencyLimiter limiter = ScriptConcurrencyLimiter.create("com.example.DataProcessorTest.reserved", 4, 0, 0,
+                0.5);
+        assertEquals(2, limiter.getReservedCount());
+        limiter.acquire(ScriptPriority.Level.BATCH);
+        limiter.acquire(ScriptPriority.Level.BATCH);
+        assertThrows(ScriptRejectedException.class, () -> limiter.acquire(ScriptPriority.Level.BATCH),
+                "Idle reserved slots should not be lent to batch calls");
+
+        // Interactive calls get the whole reserved share
+        limiter.acquire(ScriptPriority.Level.INTERACTIVE);
+        limiter.acquire(ScriptPriority.Level.INTERACTIVE);
+        assertEquals(4, limiter.getActiveCount());
+
+        // Once a batch call completes, its slot is shared by both lanes
+        limiter.release(ScriptPriority.Level.BATCH);
+        limiter.acquire(ScriptPriority.Level.INTERACTIVE);
+        assertThrows(ScriptRejectedException.class, () -> limiter.acquire(ScriptPriority.Level.BATCH));
+        limiter.release(ScriptPriority.Level.INTERACTIVE);
+        limiter.acquire(ScriptPriority.Level.BATCH);
+
+        limiter.release(ScriptPriority.Level.BATCH);
+        limiter.release(ScriptPriority.Level.BATCH);
+        limiter.release(ScriptPriority.Level.INTERACTIVE);
+        limiter.release(ScriptPriority.Level.INTERACTIVE);
+        assertEquals(0, limiter.getActiveCount());
+    }
+
+    @Test
+    @DisabledOnIntegrationTest
+    public void testFailedCallDiscardsInstance() {
+        try (var registry = newRegistry()) {
+            registry.execute("tenant-a", DataProcessorTest::createAlice);
+            assertEquals(1, registry.stats().get("tenant-a").getIdleInstances());
+
+            // Stands in for the engine running out of stack while running the script
+            assertThrows(StackOverflowError.class, () -> registry.execute("tenant-a", processor -> {
+                throw new StackOverflowError();
+            }));
+            assertEquals(0, registry.stats().get("tenant-a").getIdleInstances(), "The failed instance should not be kept warm");
+            assertEquals(0, registry.getTotalWeight());
+
+            Person person = registry.execute("tenant-a", DataProcessorTest::createBob);
+            assertEquals("Bob", person.getName());
+        }
+    }
+
+    @Test
+    @DisabledOnIntegrationTest
+    public void testPrewarmAfterRestart() throws Exception {
+        Path warmSet = Files.createTempDirectory("quickjs4j").resolve("warm-set.txt");
+        try (var registry = newRegistry()) {
+            registry.execute("tenant-a", DataProcessorTest::createAlice);
+            registry.execute("tenant-b", DataProcessorTest::createBob);
+            registry.writeWarmSet(warmSet);
+        }
+        assertEquals(List.of("tenant-b", "tenant-a"), Files.readAllLines(warmSet), "Most recently used scripts come first");
+
+        // A registry created after a restart compiles the same scripts before they are called
+        try (var registry = newRegistry()) {
+            assertEquals(2, registry.prewarm(warmSet).get(30, TimeUnit.SECONDS));
+
+            registry.execute("tenant-a", DataProcessorTest::createAlice);
+            ScriptInstanceRegistry.Stats stats = registry.stats().get("tenant-a");
+            assertEquals(1, stats.getHits(), "The first call should use the prewarmed instance");
+            assertEquals(0, stats.getMisses());
+        }
+    }
+
+    private ScriptInstanceRegistry<DataProcessor, DataProcessorContext> newRegistry() {
+        return newRegistry(scriptId -> ScriptInterfaceUtils.loadScriptLibrary("dataProcessor.js"));
+    }
+
+    private ScriptInstanceRegistry<DataProcessor, DataProcessorContext> newRegistry(Function<String, String> scriptLoader) {
+        return new ScriptInstanceRegistry<>(dataProcessorFactory, dataProcessorContext, scriptLoader, 64L * 1024 * 1024);
+    }
+
+    private ScriptInstanceRegistry<DataProcessor, DataProcessorContext> newRegistry(ScriptMemoryBudget budget) {
+        return new ScriptInstanceRegistry<>(dataProcessorFactory, dataProcessorContext,
+                scriptId -> ScriptInterfaceUtils.loadScriptLibrary("dataProcessor.js"), budget);
+    }
+
+    private static Person createAlice(DataProcessor processor) {
+        return processor.createPerson("Alice", 30, "123 Main St", "Springfield", "12345");
+    }
+
+    private static Person createBob(DataProcessor processor) {
+        return processor.createPerson("Bob", 40, "1 Elm St", "Shelbyville", "54321");
+    }
+
     @Test
     public void testBuiltinsMjsFileGenerated() {
         String filePath = "META-INF/quickjs4j/DataProcessor_Builtins.mjs";
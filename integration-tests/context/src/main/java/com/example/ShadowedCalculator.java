@@ -0,0 +1,12 @@
+package com.example;
+
+import io.quarkiverse.quickjs4j.annotations.ScriptImplementation;
+import io.quarkiverse.quickjs4j.annotations.ScriptShadow;
+import io.roastedroot.quickjs4j.annotations.ScriptInterface;
+
+@ScriptInterface(context = CalculatorContext.class)
+@ScriptImplementation(location = "shadowedCalculator.js")
+@ScriptShadow(location = "shadowedCalculatorV2.js", sampleRate = 1.0)
+public interface ShadowedCalculator {
+    int add(int a, int b);
+}
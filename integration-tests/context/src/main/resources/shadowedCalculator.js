@@ -0,0 +1,7 @@
+function add(a, b) {
+    return a + b;
+}
+
+export {
+  add
+};
@@ -0,0 +1,7 @@
+function add(a, b) {
+    return [a, b].reduce((sum, value) => sum + value, 0);
+}
+
+export {
+  add
+};
@@ -0,0 +1,46 @@
+package com.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import jakarta.inject.Inject;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkiverse.quickjs4j.util.ScriptShadowRunner;
+import io.quarkus.test.junit.QuarkusTest;
+
+/**
+ * Exercises the generated CDI bean features that need a script context, each on a dedicated script interface so
+ * that the {@link Calculator} fixture keeps testing the plain invocation path.
+ */
+@QuarkusTest
+public class ScriptFeaturesTest {
+
+    @Inject
+    ShadowedCalculator shadowedCalculator;
+
+    @Test
+    public void testShadowExecution() throws InterruptedException {
+        assertEquals(8, shadowedCalculator.add(5, 3));
+
+        ScriptShadowRunner runner = ScriptShadowRunner.runners().get("com.example.ShadowedCalculator");
+        assertNotNull(runner, "A shadow runner should be registered for ShadowedCalculator");
+
+        // The candidate script runs asynchronously
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (candidateCount(runner, "add") == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        ScriptShadowRunner.Comparison comparison = runner.getComparisons().get("add");
+        assertTrue(comparison.getPrimary().getCount() > 0);
+        assertTrue(comparison.getCandidate().getCount() > 0, "The candidate script should have been invoked");
+        assertEquals(0, comparison.getMismatchCount(), "Both script versions should agree: " + comparison);
+    }
+
+    private static long candidateCount(ScriptShadowRunner runner, String method) {
+        ScriptShadowRunner.Comparison comparison = runner.getComparisons().get(method);
+        return comparison == null ? 0 : comparison.getCandidate().getCount();
+    }
+}
@@ -0,0 +1,44 @@
+package com.example;
+
+/**
+ * Address bean for testing complex type mapping.
+ */
+public class Address {
+
+    private String street;
+    private String city;
+    private String zipCode;
+
+    public Address() {
+    }
+
+    public Address(String street, String city, String zipCode) {
+        this.street = street;
+        this.city = city;
+        this.zipCode = zipCode;
+    }
+
+    public String getStreet() {
+        return street;
+    }
+
+    public void setStreet(String street) {
+        this.street = street;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    public void setCity(String city) {
+        this.city = city;
+    }
+
+    public String getZipCode() {
+        return zipCode;
+    }
+
+    public void setZipCode(String zipCode) {
+        this.zipCode = zipCode;
+    }
+}
\ No newline at end of file
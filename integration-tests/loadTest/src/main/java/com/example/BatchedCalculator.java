@@ -0,0 +1,14 @@
+package com.example;
+
+import io.quarkiverse.quickjs4j.annotations.ScriptBatched;
+import io.quarkiverse.quickjs4j.annotations.ScriptBulkhead;
+import io.quarkiverse.quickjs4j.annotations.ScriptImplementation;
+import io.roastedroot.quickjs4j.annotations.ScriptInterface;
+
+@ScriptInterface
+@ScriptImplementation(location = "calculator.js")
+@ScriptBulkhead(maxConcurrent = 1, maxQueued = 64, maxQueueTimeMillis = 10000)
+public interface BatchedCalculator {
+    @ScriptBatched(maxItems = 8, maxWaitMicros = 50000)
+    int add(int a, int b);
+}
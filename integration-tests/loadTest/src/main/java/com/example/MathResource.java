@@ -0,0 +1,30 @@
+package com.example;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+
+@Path("/math")
+@ApplicationScoped
+public class MathResource {
+    @Inject
+    Calculator calculator;
+
+    @GET
+    @Path("/add/{a}/{b}")
+    @Produces(MediaType.APPLICATION_JSON)
+    public int add(@PathParam("a") int a, @PathParam("b") int b) {
+        return calculator.add(a, b);
+    }
+
+    @GET
+    @Path("/fibonacci/{n}")
+    @Produces(MediaType.APPLICATION_JSON)
+    public int fibonacci(@PathParam("n") int n) {
+        return calculator.fibonacci(n);
+    }
+}
@@ -0,0 +1,44 @@
+package com.example;
+
+/**
+ * Person bean for testing complex type mapping.
+ */
+public class Person {
+
+    private String name;
+    private int age;
+    private Address address;
+
+    public Person() {
+    }
+
+    public Person(String name, int age, Address address) {
+        this.name = name;
+        this.age = age;
+        this.address = address;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public int getAge() {
+        return age;
+    }
+
+    public void setAge(int age) {
+        this.age = age;
+    }
+
+    public Address getAddress() {
+        return address;
+    }
+
+    public void setAddress(Address address) {
+        this.address = address;
+    }
+}
\ No newline at end of file
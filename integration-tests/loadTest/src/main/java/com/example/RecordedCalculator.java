@@ -0,0 +1,12 @@
+package com.example;
+
+import io.quarkiverse.quickjs4j.annotations.ScriptImplementation;
+import io.quarkiverse.quickjs4j.annotations.ScriptRecorded;
+import io.roastedroot.quickjs4j.annotations.ScriptInterface;
+
+@ScriptInterface
+@ScriptImplementation(location = "calculator.js")
+@ScriptRecorded(sampleRate = 0.1)
+public interface RecordedCalculator {
+    int add(int a, int b);
+}
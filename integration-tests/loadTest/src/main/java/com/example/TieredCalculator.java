@@ -0,0 +1,12 @@
+package com.example;
+
+import io.quarkiverse.quickjs4j.annotations.ScriptImplementation;
+import io.quarkiverse.quickjs4j.annotations.ScriptTiered;
+import io.roastedroot.quickjs4j.annotations.ScriptInterface;
+
+@ScriptInterface
+@ScriptImplementation(location = "calculator.js")
+@ScriptTiered(promoteAfter = 100, warmInstances = 4)
+public interface TieredCalculator {
+    int add(int a, int b);
+}
@@ -0,0 +1,18 @@
+function add(a, b) {
+    return a + b;
+}
+
+function fibonacci(n) {
+    let previous = 0;
+    let current = 1;
+    for (let i = 0; i < n; i++) {
+        const next = previous + current;
+        previous = current;
+        current = next;
+    }
+    return previous;
+}
+
+export {
+  add, fibonacci
+};
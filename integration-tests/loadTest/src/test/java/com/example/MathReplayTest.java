@@ -0,0 +1,42 @@
+package com.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import jakarta.inject.Inject;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkiverse.quickjs4j.util.ScriptInterfaceUtils;
+import io.quarkiverse.quickjs4j.util.ScriptInvocationRecorder;
+import io.quarkiverse.quickjs4j.util.ScriptInvocationReplay;
+import io.quarkus.test.junit.QuarkusTest;
+
+/**
+ * Records invocations of a script interface and replays them against the script, as done to benchmark a
+ * script version offline with production recordings.
+ */
+@QuarkusTest
+public class MathReplayTest {
+
+    @Inject
+    RecordedCalculator calculator;
+
+    @Test
+    public void testReplayRecordedInvocations() throws Exception {
+        for (int i = 0; i < 200; i++) {
+            assertEquals(i + 1, calculator.add(i, 1));
+        }
+
+        ScriptInvocationRecorder recorder = ScriptInvocationRecorder.recorders().get("com.example.RecordedCalculator");
+        assertNotNull(recorder.getFile(), "Recording should be enabled through the quickjs4j.recording.dir property");
+        recorder.flush();
+        assertTrue(recorder.getRecordedCount() > 0, "A sample of the invocations should be recorded");
+
+        ScriptInvocationReplay.Report report = ScriptInvocationReplay.replay(recorder.getFile(), RecordedCalculator.class,
+                () -> new RecordedCalculator_Proxy(ScriptInterfaceUtils.loadScriptLibrary("calculator.js")), 3);
+        assertTrue(report.getInvocationCount() >= 3 * recorder.getRecordedCount(), report.toString());
+        assertEquals(0, report.getMethods().get("add").getFailureCount(), report.toString());
+    }
+}
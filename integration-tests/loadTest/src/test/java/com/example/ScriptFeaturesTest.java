@@ -0,0 +1,108 @@
+package com.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+
+import jakarta.inject.Inject;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkiverse.quickjs4j.util.ScriptCallBatcher;
+import io.quarkiverse.quickjs4j.util.ScriptConcurrencyLimiter;
+import io.quarkiverse.quickjs4j.util.ScriptInstanceMetrics;
+import io.quarkiverse.quickjs4j.util.ScriptTieredInstantiator;
+import io.quarkus.test.junit.QuarkusTest;
+
+/**
+ * Exercises the generated CDI bean features meant for hot script interfaces, each on a dedicated script
+ * interface so that the {@link Calculator} load test measures the plain invocation path.
+ */
+@QuarkusTest
+public class ScriptFeaturesTest {
+
+    @Inject
+    TieredCalculator tieredCalculator;
+
+    @Inject
+    BatchedCalculator batchedCalculator;
+
+    @Test
+    public void testTieredInstantiation() throws Exception {
+        // The bean, and its instantiator, is created on first use
+        assertEquals(1, tieredCalculator.add(0, 1));
+        ScriptTieredInstantiator<?> tiers = ScriptTieredInstantiator.instantiators().get("com.example.TieredCalculator");
+        assertNotNull(tiers, "A tiered instantiator should be registered for TieredCalculator");
+        ScriptInstanceMetrics instances = ScriptInstanceMetrics.metrics().get("com.example.TieredCalculator");
+        tiers.reset();
+
+        // Calls beyond promoteAfter take instances instantiated ahead of time
+        for (int i = 0; i < tiers.getPromoteAfter(); i++) {
+            assertEquals(i + 1, tieredCalculator.add(i, 1));
+        }
+        assertTrue(tiers.isPromoted(), "TieredCalculator should be promoted after " + tiers.getPromoteAfter() + " calls");
+        awaitCondition(() -> tiers.getWarmCount() > 0);
+        assertEquals(3, tieredCalculator.add(1, 2));
+        assertTrue(tiers.getWarmHits() > 0, "Promoted calls should take warm instances");
+
+        // Warm instances are alive, so they are counted, until they are closed
+        awaitCondition(() -> tiers.getWarmCount() == 4);
+        assertEquals(4, instances.getWarmInstances());
+        assertEquals(4, instances.getLiveInstances());
+        tiers.close();
+        assertEquals(0, tiers.getWarmCount());
+        assertEquals(0, instances.getWarmInstances());
+        assertEquals(0, instances.getLiveInstances());
+
+        // Once closed, calls instantiate their instance on demand
+        assertEquals(3, tieredCalculator.add(1, 2));
+        assertEquals(0, tiers.getWarmCount(), "A closed instantiator should not instantiate ahead of time");
+    }
+
+    @Test
+    public void testBatchedCallsShareOneBulkheadSlot() throws Exception {
+        // The bulkhead admits a single call at a time: calls joining a batch must not wait for a slot
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                int a = i;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return batchedCalculator.add(a, 1);
+                }));
+            }
+            start.countDown();
+            for (int i = 0; i < 8; i++) {
+                assertEquals(i + 1, results.get(i).get(), "Every caller should receive the result of its own invocation");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        ScriptCallBatcher<?> batcher = ScriptCallBatcher.batchers().get("com.example.BatchedCalculator.add");
+        assertNotNull(batcher, "A call batcher should be registered for BatchedCalculator.add");
+        assertEquals(8, batcher.getCallCount());
+        assertTrue(batcher.getBatchCount() < 8, "Concurrent calls should be batched: " + batcher.getBatchCount());
+        ScriptConcurrencyLimiter limiter = ScriptConcurrencyLimiter.limiters().get("com.example.BatchedCalculator");
+        assertEquals(0, limiter.getRejectionCount());
+        assertEquals(0, limiter.getActiveCount());
+    }
+
+    private static void awaitCondition(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timed out waiting for the warm instances");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.example;
+
+import io.quarkus.test.junit.QuarkusIntegrationTest;
+
+@QuarkusIntegrationTest
+public class ScriptLoadIT extends ScriptLoadTest {
+}
@@ -0,0 +1,204 @@
+package com.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiPredicate;
+import java.util.function.IntFunction;
+import java.util.logging.Logger;
+
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+
+/**
+ * Runs concurrent requests against the script endpoints and fails when throughput or latency regress. Only run
+ * with the {@code load-test} profile, which requires thresholds measured on the machine running the test, e.g.
+ * {@code mvn verify -Pload-test -Dloadtest.min-throughput=2000 -Dloadtest.max-p50-millis=5 ...}. A threshold can
+ * be set for a single endpoint by prefixing it with the endpoint name, e.g.
+ * {@code -Dloadtest.processPerson.max-p99-millis=40}.
+ */
+@QuarkusTest
+public class ScriptLoadTest {
+
+    private static final Logger LOGGER = Logger.getLogger(ScriptLoadTest.class.getName());
+
+    private static final int CONCURRENCY = Integer.getInteger("loadtest.concurrency", 16);
+    private static final int WARMUP_REQUESTS = Integer.getInteger("loadtest.warmup-requests", 200);
+    private static final int REQUESTS = Integer.getInteger("loadtest.requests", 2000);
+    private static final List<String> THRESHOLDS = List.of("min-throughput", "max-p50-millis", "max-p99-millis",
+            "max-p999-millis");
+
+    @TestHTTPResource("/")
+    URI baseUri;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    public void testAddUnderLoad() throws Exception {
+        LoadResult result = run("add", i -> "math/add/" + i + "/" + (i + 1),
+                (i, body) -> body.equals(Integer.toString(2 * i + 1)));
+        assertThresholds(result);
+    }
+
+    @Test
+    public void testFibonacciUnderLoad() throws Exception {
+        LoadResult result = run("fibonacci", i -> "math/fibonacci/" + (i % 40),
+                (i, body) -> body.equals(Integer.toString(fibonacci(i % 40))));
+        assertThresholds(result);
+    }
+
+    @Test
+    public void testProcessPersonUnderLoad() throws Exception {
+        LoadResult result = run("processPerson", i -> "data-processor/process",
+                (i, body) -> body.contains("\"Processed: Alice at 123 Main St, Springfield 12345\""));
+        assertThresholds(result);
+    }
+
+    /**
+     * Returns the given threshold of the given endpoint. Thresholds have no default: they only catch regressions
+     * when derived from a baseline measured on the machine running the test.
+     */
+    private static double threshold(String name, String threshold) {
+        String value = System.getProperty("loadtest." + name + "." + threshold,
+                System.getProperty("loadtest." + threshold));
+        if (value == null) {
+            throw new IllegalStateException("Set loadtest." + threshold + " (or loadtest." + name + "." + threshold
+                    + ") from a measured baseline to run the load tests");
+        }
+        return Double.parseDouble(value);
+    }
+
+    private LoadResult run(String name, IntFunction<String> path, BiPredicate<Integer, String> validBody)
+            throws Exception {
+        // Fails before generating any load if a threshold is missing
+        THRESHOLDS.forEach(threshold -> threshold(name, threshold));
+        execute(WARMUP_REQUESTS, path, validBody, null);
+
+        Histogram histogram = new Histogram(3);
+        long start = System.nanoTime();
+        int failures = execute(REQUESTS, path, validBody, histogram);
+        long elapsedNanos = System.nanoTime() - start;
+
+        LoadResult result = new LoadResult(name, histogram, failures, elapsedNanos);
+        LOGGER.info(result.toString());
+        return result;
+    }
+
+    /**
+     * Sends the given number of requests from {@link #CONCURRENCY} threads, recording their latency (in
+     * microseconds) in the given histogram, and returns the number of failed requests.
+     */
+    private int execute(int requests, IntFunction<String> path, BiPredicate<Integer, String> validBody,
+            Histogram histogram) throws InterruptedException, ExecutionException {
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENCY);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int worker = 0; worker < CONCURRENCY; worker++) {
+                workers.add(executor.submit(() -> {
+                    for (int i = next.getAndIncrement(); i < requests; i = next.getAndIncrement()) {
+                        HttpRequest request = HttpRequest.newBuilder(baseUri.resolve(path.apply(i))).GET().build();
+                        long requestStart = System.nanoTime();
+                        try {
+                            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                            if (response.statusCode() != 200 || !validBody.test(i, response.body())) {
+                                failures.incrementAndGet();
+                            }
+                        } catch (IOException e) {
+                            failures.incrementAndGet();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                        if (histogram != null) {
+                            // Histogram recording is not thread-safe
+                            synchronized (histogram) {
+                                histogram.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - requestStart));
+                            }
+                        }
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return failures.get();
+    }
+
+    private static void assertThresholds(LoadResult result) {
+        assertEquals(0, result.failures, result.name + ": all requests should succeed");
+        double minThroughput = threshold(result.name, "min-throughput");
+        assertTrue(result.throughput() >= minThroughput,
+                result.name + ": throughput regressed below " + minThroughput + " req/s: " + result);
+        double maxP50Millis = threshold(result.name, "max-p50-millis");
+        assertTrue(result.percentileMillis(50) <= maxP50Millis,
+                result.name + ": p50 latency regressed above " + maxP50Millis + "ms: " + result);
+        double maxP99Millis = threshold(result.name, "max-p99-millis");
+        assertTrue(result.percentileMillis(99) <= maxP99Millis,
+                result.name + ": p99 latency regressed above " + maxP99Millis + "ms: " + result);
+        double maxP999Millis = threshold(result.name, "max-p999-millis");
+        assertTrue(result.percentileMillis(99.9) <= maxP999Millis,
+                result.name + ": p999 latency regressed above " + maxP999Millis + "ms: " + result);
+    }
+
+    private static int fibonacci(int n) {
+        int previous = 0;
+        int current = 1;
+        for (int i = 0; i < n; i++) {
+            int next = previous + current;
+            previous = current;
+            current = next;
+        }
+        return previous;
+    }
+
+    private static class LoadResult {
+        final String name;
+        final Histogram histogram;
+        final int failures;
+        final long elapsedNanos;
+
+        LoadResult(String name, Histogram histogram, int failures, long elapsedNanos) {
+            this.name = name;
+            this.histogram = histogram;
+            this.failures = failures;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        double throughput() {
+            return histogram.getTotalCount() / (elapsedNanos / 1_000_000_000.0);
+        }
+
+        double percentileMillis(double percentile) {
+            return histogram.getValueAtPercentile(percentile) / 1000.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "%s: %d requests, %d failures, %.1f req/s, p50=%.2fms, p99=%.2fms, p999=%.2fms, max=%.2fms", name,
+                    histogram.getTotalCount(), failures, throughput(), percentileMillis(50), percentileMillis(99),
+                    percentileMillis(99.9), histogram.getMaxValue() / 1000.0);
+        }
+    }
+}
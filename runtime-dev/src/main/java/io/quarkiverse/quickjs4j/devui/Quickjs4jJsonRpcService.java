@@ -0,0 +1,143 @@
+package io.quarkiverse.quickjs4j.devui;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import io.quarkiverse.quickjs4j.jfr.ScriptInstantiateEvent;
+import io.quarkiverse.quickjs4j.jfr.ScriptInvokeEvent;
+import io.quarkiverse.quickjs4j.util.ScriptConcurrencyLimiter;
+import io.quarkiverse.quickjs4j.util.ScriptInstanceMetrics;
+import io.quarkiverse.quickjs4j.util.ScriptLatencyHistogram;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * Backs the quickjs4j Dev UI page with the live state of every script interface: its instances and bulkhead,
+ * the latency of its methods and the time it takes to instantiate (and compile) its script.
+ * <p>
+ * Latencies are collected from the {@link ScriptInvokeEvent} and {@link ScriptInstantiateEvent} JFR events
+ * through a {@link RecordingStream}, so that the generated beans do not pay for the Dev UI outside of dev
+ * mode. This class lives in the dev-only {@code quarkus-quickjs4j-dev} artifact, so it is not part of production
+ * applications. The first instantiation of a script interface is reported as its cold compile time, later ones as
+ * warm compile times.
+ */
+public class Quickjs4jJsonRpcService {
+
+    private static final String INVOKE_EVENT = "io.quarkiverse.quickjs4j.ScriptInvoke";
+    private static final String INSTANTIATE_EVENT = "io.quarkiverse.quickjs4j.ScriptInstantiate";
+
+    private final Map<String, Map<String, ScriptLatencyHistogram>> invocations = new ConcurrentHashMap<>();
+    private final Map<String, Long> coldCompileNanos = new ConcurrentHashMap<>();
+    private final Map<String, ScriptLatencyHistogram> warmCompiles = new ConcurrentHashMap<>();
+    private RecordingStream stream;
+
+    @PostConstruct
+    void start() {
+        stream = new RecordingStream();
+        stream.enable(INVOKE_EVENT).withoutThreshold();
+        stream.enable(INSTANTIATE_EVENT).withoutThreshold();
+        stream.onEvent(INVOKE_EVENT, this::invoked);
+        stream.onEvent(INSTANTIATE_EVENT, this::instantiated);
+        stream.startAsync();
+    }
+
+    @PreDestroy
+    void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private void invoked(RecordedEvent event) {
+        invocations.computeIfAbsent(event.getString("scriptInterface"), name -> new ConcurrentHashMap<>())
+                .computeIfAbsent(event.getString("method"), method -> new ScriptLatencyHistogram())
+                .record(event.getDuration().toNanos());
+    }
+
+    private void instantiated(RecordedEvent event) {
+        String scriptInterface = event.getString("scriptInterface");
+        long nanos = event.getDuration().toNanos();
+        if (coldCompileNanos.putIfAbsent(scriptInterface, nanos) != null) {
+            warmCompiles.computeIfAbsent(scriptInterface, name -> new ScriptLatencyHistogram()).record(nanos);
+        }
+    }
+
+    /**
+     * Returns the live state of every script interface that was used since the application started.
+     */
+    public List<Map<String, Object>> getScriptInterfaces() {
+        Map<String, ScriptInstanceMetrics> metrics = ScriptInstanceMetrics.metrics();
+        Map<String, ScriptConcurrencyLimiter> limiters = ScriptConcurrencyLimiter.limiters();
+        TreeSet<String> names = new TreeSet<>(metrics.keySet());
+        names.addAll(limiters.keySet());
+        names.addAll(invocations.keySet());
+        names.addAll(coldCompileNanos.keySet());
+
+        List<Map<String, Object>> scriptInterfaces = new ArrayList<>();
+        for (String name : names) {
+            Map<String, Object> scriptInterface = new LinkedHashMap<>();
+            scriptInterface.put("name", name);
+            ScriptInstanceMetrics instances = metrics.get(name);
+            if (instances != null) {
+                scriptInterface.put("liveInstances", instances.getLiveInstances());
+                scriptInterface.put("peakInstances", instances.getPeakInstances());
+                scriptInterface.put("createdCount", instances.getCreatedCount());
+                scriptInterface.put("estimatedMemoryBytes", instances.getEstimatedMemoryBytes());
+            }
+            ScriptConcurrencyLimiter limiter = limiters.get(name);
+            if (limiter != null) {
+                Map<String, Object> bulkhead = new LinkedHashMap<>();
+                bulkhead.put("adaptive", limiter.isAdaptive());
+                bulkhead.put("limit", limiter.getLimit());
+                bulkhead.put("active", limiter.getActiveCount());
+                bulkhead.put("queued", limiter.getQueueDepth());
+                bulkhead.put("rejections", limiter.getRejectionCount());
+                scriptInterface.put("bulkhead", bulkhead);
+            }
+            Long cold = coldCompileNanos.get(name);
+            if (cold != null) {
+                scriptInterface.put("coldCompileMillis", cold / 1_000_000.0);
+            }
+            ScriptLatencyHistogram warm = warmCompiles.get(name);
+            if (warm != null) {
+                scriptInterface.put("warmCompiles", latencies(warm));
+            }
+            List<Map<String, Object>> methods = new ArrayList<>();
+            new TreeMap<>(invocations.getOrDefault(name, Map.of())).forEach((method, histogram) -> {
+                Map<String, Object> latencies = latencies(histogram);
+                latencies.put("method", method);
+                methods.add(latencies);
+            });
+            scriptInterface.put("methods", methods);
+            scriptInterfaces.add(scriptInterface);
+        }
+        return scriptInterfaces;
+    }
+
+    /**
+     * Clears the collected invocation latencies and warm compile times.
+     */
+    public boolean reset() {
+        invocations.clear();
+        warmCompiles.clear();
+        return true;
+    }
+
+    private static Map<String, Object> latencies(ScriptLatencyHistogram histogram) {
+        Map<String, Object> latencies = new LinkedHashMap<>();
+        latencies.put("count", histogram.getCount());
+        latencies.put("meanMillis", histogram.getMeanMillis());
+        latencies.put("p50Millis", histogram.getPercentileMillis(50));
+        latencies.put("p95Millis", histogram.getPercentileMillis(95));
+        latencies.put("p99Millis", histogram.getPercentileMillis(99));
+        return latencies;
+    }
+}
@@ -0,0 +1,599 @@
+package io.quarkiverse.quickjs4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import io.quarkiverse.quickjs4j.annotations.ScriptPriority;
+import io.quarkiverse.quickjs4j.util.ScriptConcurrencyLimiter;
+
+/**
+ * Registry of script interface instances keyed by a script (or tenant) ID, for applications that
+ * run the same script interface with a different script per tenant.
+ * <p>
+ * Instances are created lazily through a {@link ScriptInterfaceFactory} the first time a script ID is
+ * used, and are kept warm afterwards so that subsequent calls do not recompile the script. Every
+ * instance is weighed (by default {@link #DEFAULT_INSTANCE_BYTES} plus the size of its script), and
+ * when the total weight exceeds the memory budget the idle instances of the least recently used
+ * script IDs are closed. Registries of different script interfaces can also share a single
+ * {@link ScriptMemoryBudget}.
+ * <p>
+ * Script instances are not thread-safe, so each call to {@link #execute(String, Function)} gets
+ * exclusive use of an instance for the duration of the call.
+ * <p>
+ * The garbage that accumulates in the heap of a warm instance is only reclaimed when the instance is
+ * closed. {@link #startMaintenance(long, long)} closes instances that sat idle for too long from a
+ * background thread, so that this happens off the invocation path.
+ * <p>
+ * Interactive calls can be protected from bulk work running through the same registry with a
+ * {@link ScriptConcurrencyLimiter}: calls then wait for a slot in the {@link ScriptPriority} lane passed to
+ * {@link #execute(String, ScriptPriority.Level, Function)}.
+ * <p>
+ * The warm instances are lost when the application restarts. {@link #writeWarmSet(Path)} saves the IDs of the
+ * scripts that have warm instances, and {@link #prewarm(Path)} compiles them again in the background after the
+ * restart, so that the first calls of the most used scripts do not wait for their compilation.
+ * <p>
+ * An instance whose call threw (e.g. an {@link OutOfMemoryError} or {@link StackOverflowError} raised by the
+ * engine) is closed instead of being kept warm, as the engine may have been left in an inconsistent state.
+ *
+ * @param <T> the script interface type
+ * @param <C> the script context type
+ */
+public class ScriptInstanceRegistry<T, C> implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(ScriptInstanceRegistry.class.getName());
+
+    /**
+     * Default estimate of the memory used by a single script instance (engine and Wasm memory),
+     * not counting the script itself.
+     */
+    public static final long DEFAULT_INSTANCE_BYTES = 8L * 1024 * 1024;
+
+    private final ScriptInterfaceFactory<T, C> factory;
+    private final C context;
+    private final Function<String, String> scriptLoader;
+    private final long maxWeightBytes;
+    private final ToLongFunction<String> weigher;
+    private final ScriptMemoryBudget budget;
+
+    // Access-ordered, so iteration starts with the least recently used script ID
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalWeight;
+    private long evictions;
+    private long idleEvictions;
+    private ScheduledExecutorService maintenance;
+    private volatile ScriptConcurrencyLimiter limiter;
+
+    /**
+     * Creates a registry using the default instance weigher.
+     *
+     * @param factory the factory used to create script instances
+     * @param context the context passed to every created instance
+     * @param scriptLoader loads the script library for a script ID (e.g. from a database)
+     * @param maxWeightBytes the memory budget for all instances held by this registry
+     */
+    public ScriptInstanceRegistry(ScriptInterfaceFactory<T, C> factory, C context, Function<String, String> scriptLoader,
+            long maxWeightBytes) {
+        this(factory, context, scriptLoader, maxWeightBytes, ScriptInstanceRegistry::defaultWeight);
+    }
+
+    /**
+     * Creates a registry using a custom instance weigher.
+     *
+     * @param weigher estimates the memory used by an instance of the given script library
+     */
+    public ScriptInstanceRegistry(ScriptInterfaceFactory<T, C> factory, C context, Function<String, String> scriptLoader,
+            long maxWeightBytes, ToLongFunction<String> weigher) {
+        this(factory, context, scriptLoader, maxWeightBytes, weigher, null);
+    }
+
+    /**
+     * Creates a registry whose instances count towards a memory budget shared with other registries,
+     * using the default instance weigher.
+     *
+     * @param budget the memory budget shared by all registries it is passed to
+     */
+    public ScriptInstanceRegistry(ScriptInterfaceFactory<T, C> factory, C context, Function<String, String> scriptLoader,
+            ScriptMemoryBudget budget) {
+        this(factory, context, scriptLoader, Long.MAX_VALUE, ScriptInstanceRegistry::defaultWeight, budget);
+    }
+
+    private ScriptInstanceRegistry(ScriptInterfaceFactory<T, C> factory, C context, Function<String, String> scriptLoader,
+            long maxWeightBytes, ToLongFunction<String> weigher, ScriptMemoryBudget budget) {
+        this.factory = factory;
+        this.context = context;
+        this.scriptLoader = scriptLoader;
+        this.maxWeightBytes = maxWeightBytes;
+        this.weigher = weigher;
+        this.budget = budget;
+        if (budget != null) {
+            budget.register(this);
+        }
+    }
+
+    private static long defaultWeight(String scriptLibrary) {
+        return DEFAULT_INSTANCE_BYTES + 2L * scriptLibrary.length();
+    }
+
+    /**
+     * Invokes the given call on an instance of the script with the given ID, creating (and compiling)
+     * the instance if no warm instance is available.
+     */
+    public <R> R execute(String scriptId, Function<T, R> call) {
+        return execute(scriptId, ScriptPriority.Level.INTERACTIVE, call);
+    }
+
+    /**
+     * Invokes the given call on an instance of the script with the given ID, first waiting for a slot in the
+     * given priority lane of the concurrency limiter (if any).
+     *
+     * @throws ScriptRejectedException if the concurrency limiter rejected the call
+     */
+    public <R> R execute(String scriptId, ScriptPriority.Level priority, Function<T, R> call) {
+        ScriptConcurrencyLimiter limiter = this.limiter;
+        if (limiter == null) {
+            return invoke(scriptId, call);
+        }
+        limiter.acquire(priority);
+        try {
+            return invoke(scriptId, call);
+        } finally {
+            limiter.release(priority);
+        }
+    }
+
+    private <R> R invoke(String scriptId, Function<T, R> call) {
+        Entry entry;
+        Instance<T> instance;
+        synchronized (this) {
+            entry = entries.computeIfAbsent(scriptId, Entry::new);
+            instance = entry.idle.pollFirst();
+            entry.leased++;
+            if (instance != null) {
+                entry.hits++;
+            } else {
+                entry.misses++;
+            }
+        }
+
+        boolean completed = false;
+        try {
+            if (instance == null) {
+                instance = createInstance(entry);
+            }
+            R result = call.apply(instance.delegate);
+            completed = true;
+            return result;
+        } finally {
+            // An instance whose call threw is not reused
+            release(entry, instance, !completed);
+        }
+    }
+
+    /**
+     * Discards all instances of the script with the given ID, e.g. after the script was updated.
+     * Instances currently in use are closed when their call completes.
+     */
+    public void invalidate(String scriptId) {
+        List<Instance<T>> toClose;
+        synchronized (this) {
+            Entry entry = entries.remove(scriptId);
+            if (entry == null) {
+                return;
+            }
+            toClose = new ArrayList<>(entry.idle);
+            entry.idle.clear();
+            toClose.forEach(instance -> addWeight(-instance.weight));
+        }
+        toClose.forEach(ScriptInstanceRegistry::closeInstance);
+    }
+
+    /**
+     * Returns a snapshot of the per-script statistics, keyed by script ID, from least to most recently used.
+     */
+    public synchronized Map<String, Stats> stats() {
+        Map<String, Stats> stats = new LinkedHashMap<>();
+        entries.values().forEach(entry -> stats.put(entry.scriptId,
+                new Stats(entry.hits, entry.misses, entry.idle.size(), entry.leased)));
+        return Collections.unmodifiableMap(stats);
+    }
+
+    public synchronized long getTotalWeight() {
+        return totalWeight;
+    }
+
+    public long getMaxWeight() {
+        return maxWeightBytes;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictions;
+    }
+
+    public synchronized long getIdleEvictionCount() {
+        return idleEvictions;
+    }
+
+    /**
+     * Closes the instances that have not been used for at least the given time.
+     *
+     * @return the number of closed instances
+     */
+    public int evictIdle(long maxIdleMillis) {
+        long idleSince = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(maxIdleMillis);
+        List<Instance<T>> toClose = new ArrayList<>();
+        synchronized (this) {
+            Iterator<Entry> it = entries.values().iterator();
+            while (it.hasNext()) {
+                Entry entry = it.next();
+                // Idle instances are released to the head of the deque, so the least recently used are last
+                while (!entry.idle.isEmpty() && entry.idle.peekLast().lastUsed - idleSince <= 0) {
+                    Instance<T> instance = entry.idle.pollLast();
+                    addWeight(-instance.weight);
+                    idleEvictions++;
+                    toClose.add(instance);
+                }
+                if (entry.idle.isEmpty() && entry.leased == 0) {
+                    it.remove();
+                }
+            }
+        }
+        toClose.forEach(ScriptInstanceRegistry::closeInstance);
+        return toClose.size();
+    }
+
+    /**
+     * Starts a background thread that periodically closes the instances that have not been used for at
+     * least {@code maxIdleMillis}. The thread is stopped when the registry is closed.
+     */
+    public synchronized void startMaintenance(long maxIdleMillis, long intervalMillis) {
+        if (maintenance != null) {
+            throw new IllegalStateException("Maintenance is already started");
+        }
+        maintenance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "quickjs4j-registry-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        maintenance.scheduleWithFixedDelay(() -> {
+            try {
+                int evicted = evictIdle(maxIdleMillis);
+                if (evicted > 0) {
+                    LOGGER.fine("Closed " + evicted + " idle script instances");
+                }
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Failed to close idle script instances", e);
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Writes the IDs of the scripts that have instances to the given file, one per line from the most to the
+     * least recently used, for {@link #prewarm(Path)}. The file is written to a temporary file first and then
+     * moved into place, so that it is never left partially written.
+     */
+    public void writeWarmSet(Path file) throws IOException {
+        List<String> scriptIds = new ArrayList<>();
+        synchronized (this) {
+            for (Entry entry : entries.values()) {
+                // Script IDs spanning several lines cannot be read back
+                if ((!entry.idle.isEmpty() || entry.leased > 0) && entry.scriptId.lines().count() == 1) {
+                    scriptIds.add(entry.scriptId);
+                }
+            }
+        }
+        // Entries are in access order, from the least to the most recently used
+        Collections.reverse(scriptIds);
+
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporaryFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temporaryFile, scriptIds, StandardCharsets.UTF_8);
+            Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+
+    /**
+     * Creates a warm instance, on a background thread, for each script ID listed in the given file (as written
+     * by {@link #writeWarmSet(Path)}) that has none yet, from the most recently used, and stops before the
+     * memory budget would be exceeded. A missing file is ignored, and scripts that fail to load are skipped.
+     *
+     * @return the number of warm instances created
+     */
+    public CompletableFuture<Integer> prewarm(Path file) {
+        return CompletableFuture.supplyAsync(() -> {
+            List<String> scriptIds;
+            try {
+                if (!Files.exists(file)) {
+                    return 0;
+                }
+                scriptIds = Files.readAllLines(file, StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            List<String> prewarmed = new ArrayList<>();
+            long lastWeight = 0;
+            for (String scriptId : scriptIds) {
+                synchronized (this) {
+                    Entry entry = entries.get(scriptId);
+                    if (scriptId.isEmpty() || entry != null && !entry.idle.isEmpty()) {
+                        continue;
+                    }
+                    // The weight of an instance is only known once created, so assume it weighs as much as the last one
+                    if (totalWeight + lastWeight > maxWeightBytes
+                            || budget != null && budget.getTotalWeight() + lastWeight > budget.getMaxWeight()) {
+                        break;
+                    }
+                }
+                try {
+                    lastWeight = prewarmInstance(scriptId);
+                    prewarmed.add(scriptId);
+                } catch (RuntimeException e) {
+                    LOGGER.log(Level.FINE, "Failed to prewarm script " + scriptId, e);
+                }
+            }
+
+            // Restore the access order of the file, so that the least recently used scripts are evicted first
+            synchronized (this) {
+                for (int i = prewarmed.size() - 1; i >= 0; i--) {
+                    entries.get(prewarmed.get(i));
+                }
+            }
+            return prewarmed.size();
+        }, runnable -> {
+            Thread thread = new Thread(runnable, "quickjs4j-registry-prewarm");
+            thread.setDaemon(true);
+            thread.start();
+        });
+    }
+
+    private long prewarmInstance(String scriptId) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.computeIfAbsent(scriptId, Entry::new);
+            entry.leased++;
+        }
+        Instance<T> instance = null;
+        try {
+            instance = createInstance(entry);
+            return instance.weight;
+        } finally {
+            release(entry, instance, false);
+        }
+    }
+
+    /**
+     * Limits the number of concurrent calls made through this registry, or removes the limit when
+     * {@code null}. The limiter may be shared with other registries or beans.
+     */
+    public void setConcurrencyLimiter(ScriptConcurrencyLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    public ScriptConcurrencyLimiter getConcurrencyLimiter() {
+        return limiter;
+    }
+
+    @Override
+    public void close() {
+        List<Instance<T>> toClose = new ArrayList<>();
+        synchronized (this) {
+            if (maintenance != null) {
+                maintenance.shutdownNow();
+                maintenance = null;
+            }
+            entries.values().forEach(entry -> toClose.addAll(entry.idle));
+            entries.clear();
+            // Leased instances are closed, and their weight subtracted, when they are released
+            toClose.forEach(instance -> addWeight(-instance.weight));
+        }
+        if (budget != null) {
+            budget.unregister(this);
+        }
+        toClose.forEach(ScriptInstanceRegistry::closeInstance);
+    }
+
+    private Instance<T> createInstance(Entry entry) {
+        String scriptLibrary = entry.scriptLibrary;
+        if (scriptLibrary == null) {
+            scriptLibrary = scriptLoader.apply(entry.scriptId);
+            if (scriptLibrary == null) {
+                throw new IllegalArgumentException("No script library found for script ID: " + entry.scriptId);
+            }
+            entry.scriptLibrary = scriptLibrary;
+        }
+
+        Instance<T> instance = new Instance<>(factory.create(scriptLibrary, context), weigher.applyAsLong(scriptLibrary));
+        synchronized (this) {
+            addWeight(instance.weight);
+        }
+        return instance;
+    }
+
+    private void release(Entry entry, Instance<T> instance, boolean discard) {
+        List<Instance<T>> toClose = new ArrayList<>();
+        synchronized (this) {
+            entry.leased--;
+            if (instance == null) {
+                // The instance could not be created, e.g. for an unknown or broken script ID, so an entry without
+                // other instances is dropped rather than kept (and written to the warm set) forever
+                if (entry.idle.isEmpty() && entry.leased == 0) {
+                    entries.remove(entry.scriptId, entry);
+                }
+            } else if (entries.get(entry.scriptId) == entry && !discard) {
+                instance.lastUsed = System.nanoTime();
+                entry.idle.addFirst(instance);
+            } else {
+                // The script was invalidated or evicted while the instance was in use, or the instance failed
+                addWeight(-instance.weight);
+                toClose.add(instance);
+            }
+            evictIfNeeded(toClose);
+        }
+        toClose.forEach(ScriptInstanceRegistry::closeInstance);
+        if (budget != null) {
+            budget.enforce();
+        }
+    }
+
+    private void addWeight(long delta) {
+        totalWeight += delta;
+        if (budget != null) {
+            budget.addWeight(delta);
+        }
+    }
+
+    /**
+     * Returns when the least recently used idle instance was last used, or {@code null} if no instance is idle.
+     */
+    synchronized Long oldestIdleInstance() {
+        Long oldest = null;
+        for (Entry entry : entries.values()) {
+            Instance<T> instance = entry.idle.peekLast();
+            if (instance != null && (oldest == null || instance.lastUsed - oldest < 0)) {
+                oldest = instance.lastUsed;
+            }
+        }
+        return oldest;
+    }
+
+    /**
+     * Closes the least recently used idle instance, returning {@code false} if no instance is idle.
+     */
+    boolean evictOldestIdleInstance() {
+        Instance<T> instance = null;
+        synchronized (this) {
+            Entry oldestEntry = null;
+            for (Entry entry : entries.values()) {
+                Instance<T> candidate = entry.idle.peekLast();
+                if (candidate != null && (instance == null || candidate.lastUsed - instance.lastUsed < 0)) {
+                    instance = candidate;
+                    oldestEntry = entry;
+                }
+            }
+            if (oldestEntry == null) {
+                return false;
+            }
+            oldestEntry.idle.pollLast();
+            addWeight(-instance.weight);
+            evictions++;
+            if (oldestEntry.idle.isEmpty() && oldestEntry.leased == 0) {
+                entries.remove(oldestEntry.scriptId);
+            }
+        }
+        closeInstance(instance);
+        return true;
+    }
+
+    private void evictIfNeeded(List<Instance<T>> toClose) {
+        Iterator<Entry> lru = entries.values().iterator();
+        while (totalWeight > maxWeightBytes && lru.hasNext()) {
+            Entry entry = lru.next();
+            while (totalWeight > maxWeightBytes && !entry.idle.isEmpty()) {
+                Instance<T> instance = entry.idle.pollLast();
+                addWeight(-instance.weight);
+                evictions++;
+                toClose.add(instance);
+            }
+            if (entry.idle.isEmpty() && entry.leased == 0) {
+                lru.remove();
+            }
+        }
+    }
+
+    private static void closeInstance(Instance<?> instance) {
+        if (instance.delegate instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) instance.delegate).close();
+            } catch (Exception e) {
+                LOGGER.log(Level.WARNING, "Failed to close script instance", e);
+            }
+        }
+    }
+
+    private class Entry {
+        final String scriptId;
+        final Deque<Instance<T>> idle = new ArrayDeque<>();
+        volatile String scriptLibrary;
+        int leased;
+        long hits;
+        long misses;
+
+        Entry(String scriptId) {
+            this.scriptId = scriptId;
+        }
+    }
+
+    private static class Instance<T> {
+        final T delegate;
+        final long weight;
+        long lastUsed;
+
+        Instance(T delegate, long weight) {
+            this.delegate = delegate;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * Statistics for a single script ID. A hit is a call served by a warm instance, a miss is a call
+     * that had to create (and compile) a new instance.
+     */
+    public static class Stats {
+        private final long hits;
+        private final long misses;
+        private final int idleInstances;
+        private final int activeInstances;
+
+        Stats(long hits, long misses, int idleInstances, int activeInstances) {
+            this.hits = hits;
+            this.misses = misses;
+            this.idleInstances = idleInstances;
+            this.activeInstances = activeInstances;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public double getHitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+
+        public int getIdleInstances() {
+            return idleInstances;
+        }
+
+        public int getActiveInstances() {
+            return activeInstances;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package io.quarkiverse.quickjs4j;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Memory budget shared by several {@link ScriptInstanceRegistry} instances, typically one per script
+ * interface, so that the warm instances of all interfaces are capped together instead of each interface
+ * reserving its own budget.
+ * <p>
+ * When the total weight of the instances of all registries exceeds the budget, the least recently used
+ * idle instances are closed, whichever registry they belong to.
+ */
+public class ScriptMemoryBudget {
+
+    private final long maxWeightBytes;
+    private final AtomicLong totalWeight = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final List<ScriptInstanceRegistry<?, ?>> registries = new CopyOnWriteArrayList<>();
+
+    public ScriptMemoryBudget(long maxWeightBytes) {
+        this.maxWeightBytes = maxWeightBytes;
+    }
+
+    void register(ScriptInstanceRegistry<?, ?> registry) {
+        registries.add(registry);
+    }
+
+    void unregister(ScriptInstanceRegistry<?, ?> registry) {
+        registries.remove(registry);
+    }
+
+    void addWeight(long delta) {
+        totalWeight.addAndGet(delta);
+    }
+
+    /**
+     * Closes idle instances, least recently used first, until the budget is respected or no idle instance
+     * is left. Must not be called while holding the lock of a registry.
+     */
+    void enforce() {
+        while (totalWeight.get() > maxWeightBytes) {
+            ScriptInstanceRegistry<?, ?> leastRecentlyUsed = null;
+            long oldest = Long.MAX_VALUE;
+            for (ScriptInstanceRegistry<?, ?> registry : registries) {
+                Long lastUsed = registry.oldestIdleInstance();
+                if (lastUsed != null && (leastRecentlyUsed == null || lastUsed - oldest < 0)) {
+                    leastRecentlyUsed = registry;
+                    oldest = lastUsed;
+                }
+            }
+            if (leastRecentlyUsed == null || !leastRecentlyUsed.evictOldestIdleInstance()) {
+                return;
+            }
+            evictions.incrementAndGet();
+        }
+    }
+
+    public long getTotalWeight() {
+        return totalWeight.get();
+    }
+
+    public long getMaxWeight() {
+        return maxWeightBytes;
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+}
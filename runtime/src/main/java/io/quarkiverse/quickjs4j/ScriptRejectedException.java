@@ -0,0 +1,18 @@
+package io.quarkiverse.quickjs4j;
+
+/**
+ * Thrown when a script invocation is rejected because the script interface is overloaded,
+ * i.e. its wait queue is full or the caller waited longer than the maximum queue time.
+ */
+public class ScriptRejectedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ScriptRejectedException(String message) {
+        super(message);
+    }
+
+    public ScriptRejectedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
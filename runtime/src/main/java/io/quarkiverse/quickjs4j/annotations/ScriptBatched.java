@@ -0,0 +1,31 @@
+package io.quarkiverse.quickjs4j.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Batches the concurrent calls of a method of a {@code @ScriptInterface} onto a single script instance. The
+ * generated CDI bean buffers calls for up to {@link #maxWaitMicros()} microseconds or {@link #maxItems()}
+ * calls, and runs them one after the other on one instance through {@code ScriptCallBatcher}, so that the
+ * whole batch pays for a single engine instantiation. Every caller receives its own result (or exception).
+ * <p>
+ * Batching is an opt-in for cheap methods, whose calls cost less than instantiating an engine: the calls of a
+ * batch run one after the other, so batching a CPU-bound method serializes it. Calls of a batch share the global
+ * state of the script, so the method must not depend on a fresh engine. With {@code @ScriptBulkhead}, a batch
+ * holds a single slot.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface ScriptBatched {
+    /**
+     * The maximum number of calls in a batch.
+     */
+    int maxItems() default 16;
+
+    /**
+     * The maximum time (in microseconds) the first call of a batch waits for other calls to join it.
+     */
+    long maxWaitMicros() default 200;
+}
@@ -0,0 +1,66 @@
+package io.quarkiverse.quickjs4j.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Limits the number of concurrent script invocations made through the generated CDI bean of a
+ * {@code @ScriptInterface}. Callers beyond the limit wait in a bounded queue; when the queue is full,
+ * or a caller waits longer than the maximum queue time, the call fails fast with a
+ * {@link io.quarkiverse.quickjs4j.ScriptRejectedException}.
+ * <p>
+ * When {@link #adaptive()} is set, the limit starts at {@link #minConcurrent()} and is adjusted to the
+ * observed load: it grows while callers wait longer than {@link #targetQueueTimeMillis()} (and the CPU is
+ * not saturated), and shrinks back when the allowed concurrency is no longer used.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface ScriptBulkhead {
+    /**
+     * The maximum number of concurrent script invocations. A value of zero or less uses the number
+     * of available processors.
+     */
+    int maxConcurrent() default 0;
+
+    /**
+     * Whether the concurrency limit adapts to the load, between {@link #minConcurrent()} and
+     * {@link #maxConcurrent()}.
+     */
+    boolean adaptive() default false;
+
+    /**
+     * The lowest concurrency limit of an adaptive bulkhead.
+     */
+    int minConcurrent() default 1;
+
+    /**
+     * The average wait (in milliseconds) for a free slot above which an adaptive bulkhead raises its limit.
+     */
+    long targetQueueTimeMillis() default 10;
+
+    /**
+     * The estimated memory (in bytes) the script instances of an adaptive bulkhead may use, bounding its
+     * limit. A value of zero or less does not bound the limit by memory.
+     */
+    long maxMemoryBytes() default 0;
+
+    /**
+     * The maximum number of callers waiting for a free slot.
+     */
+    int maxQueued() default 100;
+
+    /**
+     * How long (in milliseconds) a caller may wait for a free slot before being rejected.
+     */
+    long maxQueueTimeMillis() default 1000;
+
+    /**
+     * The share (between 0 and 1) of the limit reserved for calls in the interactive
+     * {@link ScriptPriority} lane. Batch calls never use the reserved slots, and only use the slots of the
+     * rest of the limit that interactive calls leave idle. Unless set to 1, at least one slot is left to
+     * batch calls.
+     */
+    double interactiveShare() default 0;
+}
@@ -0,0 +1,25 @@
+package io.quarkiverse.quickjs4j.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a method of a {@code @ScriptInterface} as a pure function of its arguments. The generated
+ * CDI bean caches the result of each invocation, keyed by the arguments, so that repeated calls
+ * with the same arguments do not enter the script engine.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface ScriptCacheable {
+    /**
+     * The maximum number of results kept in the cache.
+     */
+    int maxSize() default 1000;
+
+    /**
+     * How long (in milliseconds) a cached result stays valid. A value of zero or less disables expiration.
+     */
+    long ttlMillis() default 0;
+}
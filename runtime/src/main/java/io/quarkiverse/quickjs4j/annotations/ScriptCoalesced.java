@@ -0,0 +1,16 @@
+package io.quarkiverse.quickjs4j.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a method of a {@code @ScriptInterface} as a pure function of its arguments whose concurrent
+ * invocations can be coalesced. The generated CDI bean runs a single invocation for all concurrent calls
+ * with equal arguments, and every caller receives its result (or exception).
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface ScriptCoalesced {
+}
@@ -0,0 +1,30 @@
+package io.quarkiverse.quickjs4j.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Sets the priority lane in which the calls of a {@code @ScriptInterface} (or of a single method) wait for a
+ * {@code @ScriptBulkhead} slot. Interactive calls are always admitted before waiting batch calls, and can be
+ * guaranteed a share of the slots with {@link ScriptBulkhead#interactiveShare()}. Calls are interactive by
+ * default; a method annotation takes precedence over the interface annotation.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.TYPE, ElementType.METHOD })
+public @interface ScriptPriority {
+    Level value();
+
+    enum Level {
+        /**
+         * Latency-sensitive calls, e.g. made while serving a request.
+         */
+        INTERACTIVE,
+        /**
+         * Throughput-oriented calls, e.g. made by bulk jobs, which only use the slots interactive calls
+         * do not need.
+         */
+        BATCH
+    }
+}
@@ -0,0 +1,21 @@
+package io.quarkiverse.quickjs4j.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Records a sample of the calls made through the generated CDI bean of a {@code @ScriptInterface} (method,
+ * arguments and latency of the call into the script) to a local file, so that they can be replayed against any version of the script
+ * with {@code ScriptInvocationReplay}. Nothing is recorded unless the {@code quickjs4j.recording.dir}
+ * system property is set.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface ScriptRecorded {
+    /**
+     * The fraction (between 0 and 1) of the calls recorded.
+     */
+    double sampleRate() default 0.01;
+}
@@ -0,0 +1,26 @@
+package io.quarkiverse.quickjs4j.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Shadows the calls made through the generated CDI bean of a {@code @ScriptInterface} with a candidate
+ * version of its script. A sample of the calls is replayed asynchronously against the candidate script,
+ * off the caller's path, and the latencies and results of both versions are compared through
+ * {@code ScriptShadowRunner}. The candidate's results are never returned to callers.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface ScriptShadow {
+    /**
+     * The location of the candidate script, resolved like {@link ScriptImplementation#location()}.
+     */
+    String location();
+
+    /**
+     * The fraction (between 0 and 1) of the calls replayed against the candidate script.
+     */
+    double sampleRate() default 0.01;
+}
@@ -0,0 +1,25 @@
+package io.quarkiverse.quickjs4j.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Instantiates the script instances of the generated CDI bean of a {@code @ScriptInterface} in two tiers
+ * through {@code ScriptTieredInstantiator}: on demand at first, and ahead of time in the background once the
+ * interface is hot, so that calls no longer wait for the script to be compiled.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface ScriptTiered {
+    /**
+     * The number of calls after which script instances are instantiated ahead of time.
+     */
+    int promoteAfter() default 100;
+
+    /**
+     * The number of script instances kept ready once the interface is promoted.
+     */
+    int warmInstances() default 1;
+}
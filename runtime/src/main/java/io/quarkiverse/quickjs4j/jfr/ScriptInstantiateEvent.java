@@ -0,0 +1,27 @@
+package io.quarkiverse.quickjs4j.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Emitted when a script interface proxy is created, which instantiates the QuickJS engine and compiles
+ * the script library.
+ */
+@Name("io.quarkiverse.quickjs4j.ScriptInstantiate")
+@Label("Script Instantiation")
+@Category("Quickjs4j")
+@Description("Engine instantiation and compilation of a script library")
+@StackTrace(false)
+public class ScriptInstantiateEvent extends Event {
+
+    @Label("Script Interface")
+    String scriptInterface;
+
+    public ScriptInstantiateEvent(String scriptInterface) {
+        this.scriptInterface = scriptInterface;
+    }
+}
@@ -0,0 +1,31 @@
+package io.quarkiverse.quickjs4j.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Emitted when a script interface method is invoked, including the marshalling of its arguments and
+ * result and the context builtins called by the script.
+ */
+@Name("io.quarkiverse.quickjs4j.ScriptInvoke")
+@Label("Script Invocation")
+@Category("Quickjs4j")
+@Description("Invocation of a script interface method")
+@StackTrace(false)
+public class ScriptInvokeEvent extends Event {
+
+    @Label("Script Interface")
+    String scriptInterface;
+
+    @Label("Method")
+    String method;
+
+    public ScriptInvokeEvent(String scriptInterface, String method) {
+        this.scriptInterface = scriptInterface;
+        this.method = method;
+    }
+}
@@ -0,0 +1,39 @@
+package io.quarkiverse.quickjs4j.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Emitted when a script library is loaded from the file system or the classpath.
+ */
+@Name("io.quarkiverse.quickjs4j.ScriptLoad")
+@Label("Script Load")
+@Category("Quickjs4j")
+@Description("Loading of a script library")
+@StackTrace(false)
+public class ScriptLoadEvent extends Event {
+
+    @Label("Script Location")
+    String scriptLocation;
+
+    @Label("Loaded From")
+    String loadedFrom;
+
+    @Label("Size")
+    @DataAmount
+    long size;
+
+    public ScriptLoadEvent(String scriptLocation) {
+        this.scriptLocation = scriptLocation;
+    }
+
+    public void loaded(String loadedFrom, String scriptLibrary) {
+        this.loadedFrom = loadedFrom;
+        this.size = scriptLibrary == null ? 0 : scriptLibrary.length();
+    }
+}
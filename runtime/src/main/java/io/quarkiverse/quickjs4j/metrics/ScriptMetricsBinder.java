@@ -0,0 +1,199 @@
+package io.quarkiverse.quickjs4j.metrics;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Singleton;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.quarkiverse.quickjs4j.util.ScriptCallCoalescer;
+import io.quarkiverse.quickjs4j.util.ScriptConcurrencyLimiter;
+import io.quarkiverse.quickjs4j.util.ScriptInstanceMetrics;
+import io.quarkiverse.quickjs4j.util.ScriptResultCache;
+
+/**
+ * Exposes the {@link ScriptInstanceMetrics}, {@link ScriptConcurrencyLimiter}, {@link ScriptResultCache} and
+ * {@link ScriptCallCoalescer} of every script interface as Micrometer meters, tagged with the script interface FQN
+ * (or method name for caches and coalescers). Only registered when the Micrometer extension is present.
+ * <p>
+ * The binder owns its registrations: the meters of an object are replaced when a new object is registered under
+ * the same name (e.g. after a dev mode restart), and the listeners and meters are removed when the binder is
+ * destroyed.
+ */
+@Singleton
+public class ScriptMetricsBinder implements MeterBinder {
+
+    private final Consumer<ScriptInstanceMetrics> instancesListener = this::bindTo;
+    private final Consumer<ScriptConcurrencyLimiter> limiterListener = this::bindTo;
+    private final Consumer<ScriptResultCache> cacheListener = this::bindTo;
+    private final Consumer<ScriptCallCoalescer> coalescerListener = this::bindTo;
+
+    private final Map<String, List<Meter>> meters = new HashMap<>();
+    private MeterRegistry registry;
+
+    @Override
+    public synchronized void bindTo(MeterRegistry registry) {
+        if (this.registry != null) {
+            unbind();
+        }
+        this.registry = registry;
+        // Script interface beans are created lazily, so their objects may be registered after binding
+        ScriptInstanceMetrics.addListener(instancesListener);
+        ScriptConcurrencyLimiter.addListener(limiterListener);
+        ScriptResultCache.addListener(cacheListener);
+        ScriptCallCoalescer.addListener(coalescerListener);
+    }
+
+    /**
+     * Removes the listeners and all meters registered by this binder.
+     */
+    @PreDestroy
+    public synchronized void unbind() {
+        ScriptInstanceMetrics.removeListener(instancesListener);
+        ScriptConcurrencyLimiter.removeListener(limiterListener);
+        ScriptResultCache.removeListener(cacheListener);
+        ScriptCallCoalescer.removeListener(coalescerListener);
+        if (registry != null) {
+            meters.values().forEach(registered -> registered.forEach(registry::remove));
+            registry = null;
+        }
+        meters.clear();
+    }
+
+    private synchronized void bindTo(ScriptInstanceMetrics metrics) {
+        String key = "instances:" + metrics.getName();
+        if (!removeMeters(key)) {
+            return;
+        }
+        meters.put(key, List.of(
+                Gauge.builder("quickjs4j.instances.live", metrics, ScriptInstanceMetrics::getLiveInstances)
+                        .description("Script instances being created or in use")
+                        .tag("interface", metrics.getName())
+                        .register(registry),
+                Gauge.builder("quickjs4j.instances.peak", metrics, ScriptInstanceMetrics::getPeakInstances)
+                        .description("Highest number of script instances alive at the same time")
+                        .tag("interface", metrics.getName())
+                        .register(registry),
+                Gauge.builder("quickjs4j.instances.warm", metrics, ScriptInstanceMetrics::getWarmInstances)
+                        .description("Script instances instantiated ahead of time and waiting for a call")
+                        .tag("interface", metrics.getName())
+                        .register(registry),
+                FunctionCounter.builder("quickjs4j.instances.created", metrics, ScriptInstanceMetrics::getCreatedCount)
+                        .description("Script instances handed to calls")
+                        .tag("interface", metrics.getName())
+                        .register(registry),
+                Gauge.builder("quickjs4j.instances.memory.estimated", metrics,
+                        ScriptInstanceMetrics::getEstimatedMemoryBytes)
+                        .description("Estimated memory used by the live script instances")
+                        .baseUnit(BaseUnits.BYTES)
+                        .tag("interface", metrics.getName())
+                        .register(registry)));
+    }
+
+    private synchronized void bindTo(ScriptConcurrencyLimiter limiter) {
+        String key = "bulkhead:" + limiter.getName();
+        if (!removeMeters(key)) {
+            return;
+        }
+        meters.put(key, List.of(
+                Gauge.builder("quickjs4j.bulkhead.limit", limiter, ScriptConcurrencyLimiter::getLimit)
+                        .description("Current concurrency limit of the bulkhead")
+                        .tag("interface", limiter.getName())
+                        .register(registry),
+                Gauge.builder("quickjs4j.bulkhead.active", limiter, ScriptConcurrencyLimiter::getActiveCount)
+                        .description("Script invocations holding a bulkhead slot")
+                        .tag("interface", limiter.getName())
+                        .register(registry),
+                Gauge.builder("quickjs4j.bulkhead.queued", limiter, ScriptConcurrencyLimiter::getQueueDepth)
+                        .description("Callers waiting for a bulkhead slot")
+                        .tag("interface", limiter.getName())
+                        .register(registry),
+                FunctionCounter.builder("quickjs4j.bulkhead.rejections", limiter,
+                        ScriptConcurrencyLimiter::getRejectionCount)
+                        .description("Calls rejected by the bulkhead")
+                        .tag("interface", limiter.getName())
+                        .register(registry),
+                FunctionCounter.builder("quickjs4j.bulkhead.limit.increases", limiter,
+                        ScriptConcurrencyLimiter::getIncreaseCount)
+                        .description("Times an adaptive bulkhead raised its limit")
+                        .tag("interface", limiter.getName())
+                        .register(registry),
+                FunctionCounter.builder("quickjs4j.bulkhead.limit.decreases", limiter,
+                        ScriptConcurrencyLimiter::getDecreaseCount)
+                        .description("Times an adaptive bulkhead lowered its limit")
+                        .tag("interface", limiter.getName())
+                        .register(registry)));
+    }
+
+    private synchronized void bindTo(ScriptResultCache cache) {
+        String key = "cache:" + cache.getName();
+        if (!removeMeters(key)) {
+            return;
+        }
+        meters.put(key, List.of(
+                Gauge.builder("quickjs4j.cache.size", cache, ScriptResultCache::size)
+                        .description("Results held by the cache")
+                        .tag("method", cache.getName())
+                        .register(registry),
+                FunctionCounter.builder("quickjs4j.cache.hits", cache, ScriptResultCache::getHitCount)
+                        .description("Calls answered from the cache")
+                        .tag("method", cache.getName())
+                        .register(registry),
+                FunctionCounter.builder("quickjs4j.cache.misses", cache, ScriptResultCache::getMissCount)
+                        .description("Calls that invoked the script")
+                        .tag("method", cache.getName())
+                        .register(registry),
+                FunctionCounter.builder("quickjs4j.cache.evictions", cache, ScriptResultCache::getEvictionCount)
+                        .description("Results evicted from the cache")
+                        .tag("method", cache.getName())
+                        .register(registry)));
+    }
+
+    private synchronized void bindTo(ScriptCallCoalescer coalescer) {
+        String key = "coalescer:" + coalescer.getName();
+        if (!removeMeters(key)) {
+            return;
+        }
+        meters.put(key, List.of(
+                Gauge.builder("quickjs4j.coalescer.inflight", coalescer, ScriptCallCoalescer::getInFlightCount)
+                        .description("Distinct calls being executed")
+                        .tag("method", coalescer.getName())
+                        .register(registry),
+                FunctionCounter.builder("quickjs4j.coalescer.executions", coalescer,
+                        ScriptCallCoalescer::getExecutionCount)
+                        .description("Calls that invoked the script")
+                        .tag("method", coalescer.getName())
+                        .register(registry),
+                FunctionCounter.builder("quickjs4j.coalescer.coalesced", coalescer,
+                        ScriptCallCoalescer::getCoalescedCount)
+                        .description("Calls that shared the result of an identical call in flight")
+                        .tag("method", coalescer.getName())
+                        .register(registry)));
+    }
+
+    /**
+     * Removes the meters registered for the object previously bound under the given key. Micrometer returns the
+     * existing meter when a meter with the same ID is registered again, so the meters of a replaced object must be
+     * removed before the meters of its replacement are registered.
+     *
+     * @return false if the binder is not bound to a registry anymore
+     */
+    private boolean removeMeters(String key) {
+        if (registry == null) {
+            return false;
+        }
+        List<Meter> registered = meters.remove(key);
+        if (registered != null) {
+            registered.forEach(registry::remove);
+        }
+        return true;
+    }
+}
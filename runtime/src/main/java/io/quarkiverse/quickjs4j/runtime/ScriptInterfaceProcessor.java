@@ -3,13 +3,16 @@ package io.quarkiverse.quickjs4j.runtime;
 import static java.lang.String.format;
 import static javax.tools.Diagnostic.Kind.ERROR;
 import static javax.tools.Diagnostic.Kind.NOTE;
+import static javax.tools.Diagnostic.Kind.WARNING;
 
 import java.io.IOException;
 import java.io.Writer;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 
 import javax.annotation.processing.AbstractProcessor;
 import javax.annotation.processing.Filer;
@@ -32,20 +35,37 @@ import javax.tools.Diagnostic;
 import javax.tools.FileObject;
 import javax.tools.StandardLocation;
 
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
-import org.jboss.forge.roaster.Roaster;
-import org.jboss.forge.roaster.model.source.JavaClassSource;
-import org.jboss.forge.roaster.model.source.MethodSource;
-
 import io.quarkiverse.quickjs4j.ScriptInterfaceFactory;
+import io.quarkiverse.quickjs4j.annotations.ScriptBatched;
+import io.quarkiverse.quickjs4j.annotations.ScriptBulkhead;
+import io.quarkiverse.quickjs4j.annotations.ScriptCacheable;
+import io.quarkiverse.quickjs4j.annotations.ScriptCoalesced;
 import io.quarkiverse.quickjs4j.annotations.ScriptImplementation;
+import io.quarkiverse.quickjs4j.annotations.ScriptPriority;
+import io.quarkiverse.quickjs4j.annotations.ScriptRecorded;
+import io.quarkiverse.quickjs4j.annotations.ScriptShadow;
+import io.quarkiverse.quickjs4j.annotations.ScriptTiered;
+import io.quarkiverse.quickjs4j.jfr.ScriptInstantiateEvent;
+import io.quarkiverse.quickjs4j.jfr.ScriptInvokeEvent;
+import io.quarkiverse.quickjs4j.util.ScriptCallBatcher;
+import io.quarkiverse.quickjs4j.util.ScriptCallCoalescer;
+import io.quarkiverse.quickjs4j.util.ScriptConcurrencyLimiter;
+import io.quarkiverse.quickjs4j.util.ScriptInstanceMetrics;
 import io.quarkiverse.quickjs4j.util.ScriptInterfaceUtils;
+import io.quarkiverse.quickjs4j.util.ScriptInvocationRecorder;
+import io.quarkiverse.quickjs4j.util.ScriptResultCache;
+import io.quarkiverse.quickjs4j.util.ScriptShadowRunner;
+import io.quarkiverse.quickjs4j.util.ScriptTieredInstantiator;
 import io.roastedroot.quickjs4j.annotations.ScriptInterface;
 
 public class ScriptInterfaceProcessor extends AbstractProcessor {
 
+    private final Set<String> processed = new HashSet<>();
+
     static PackageElement getPackageName(Element element) {
         Element enclosing = element;
         while (enclosing.getKind() != ElementKind.PACKAGE) {
@@ -84,6 +104,11 @@ public class ScriptInterfaceProcessor extends AbstractProcessor {
     @Override
     public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
         for (Element element : roundEnv.getElementsAnnotatedWith(ScriptInterface.class)) {
+            // Each script interface is generated only once per compilation, even across rounds
+            if (!processed.add(((TypeElement) element).getQualifiedName().toString())) {
+                continue;
+            }
+
             generateFactoryFor((TypeElement) element);
 
             ScriptImplementation scriptImplementationAnnotation = element.getAnnotation(ScriptImplementation.class);
@@ -109,127 +134,302 @@ public class ScriptInterfaceProcessor extends AbstractProcessor {
         String cdiBeanClassName = scriptInterfaceName + "_CDI";
         String cdiBeanClassFQN = packageName + "." + cdiBeanClassName;
         String proxyClassName = scriptInterfaceElement.getSimpleName().toString() + "_Proxy";
-        String proxyClassFQN = packageName + "." + proxyClassName;
 
         AnnotationMirror scriptInterfaceAnnotation = getScriptInterfaceAnnotation(scriptInterfaceElement);
         Element contextClass = getContextClassFromAnnotation(scriptInterfaceAnnotation);
 
         boolean hasContextClass = contextClass != null;
-        String contextClassName = "Void";
-
-        // Create the CDI Bean class and add all imports
-        JavaClassSource cdiBeanSource = Roaster.create(JavaClassSource.class);
-        cdiBeanSource.setPackage(packageName);
-        cdiBeanSource.setName(cdiBeanClassName);
-        cdiBeanSource.addImport(ApplicationScoped.class);
-        cdiBeanSource.addImport(scriptInterfaceFQN);
-        cdiBeanSource.addImport(proxyClassFQN);
-        cdiBeanSource.addImport(ScriptInterfaceUtils.class);
-        cdiBeanSource.addAnnotation(ApplicationScoped.class);
 
-        if (hasContextClass) {
-            String contextClassPackage = getPackageName(contextClass).toString();
-            contextClassName = contextClass.getSimpleName().toString();
-            String contextClassFQN = contextClassPackage + "." + contextClassName;
+        // Collect the imports, fields and methods of the CDI bean class
+        Set<String> imports = new TreeSet<>();
+        imports.add(ApplicationScoped.class.getName());
+        imports.add(ScriptInterfaceUtils.class.getName());
+        imports.add(ScriptInstantiateEvent.class.getName());
+        imports.add(ScriptInvokeEvent.class.getName());
+        imports.add(ScriptInstanceMetrics.class.getName());
+        StringBuilder members = new StringBuilder();
 
-            cdiBeanSource.addImport(contextClassFQN);
-            cdiBeanSource.addImport(Inject.class);
-        }
-
-        // The CDI bean class implements the script interface
-        cdiBeanSource.addInterface(scriptInterfaceName);
-
-        // Create the SCRIPT_LIBRARY_LOCATION static field
-        cdiBeanSource.addField()
-                .setPrivate()
-                .setStatic(true)
-                .setType(String.class)
-                .setName("SCRIPT_LIBRARY_LOCATION")
-                .setLiteralInitializer(String.format("\"%s\"", scriptLocation));
+        // Create the SCRIPT_LIBRARY_LOCATION and SCRIPT_BUNDLE_LOCATION static fields
+        members.append(format("private static String SCRIPT_LIBRARY_LOCATION = \"%s\";\n", scriptLocation));
+        members.append(format("private static String SCRIPT_BUNDLE_LOCATION = \"%s\";\n",
+                ScriptInterfaceUtils.bundleLocation(scriptInterfaceFQN)));
 
         // Create the context field (if needed)
         if (hasContextClass) {
-            cdiBeanSource.addField()
-                    .setType(contextClassName)
-                    .setName("context")
-                    .addAnnotation(Inject.class);
+            imports.add(Inject.class.getName());
+            members.append("\n@Inject\n");
+            members.append(contextClass.toString()).append(" context;\n");
+        }
+
+        // Create the instance metrics field
+        members.append(format("\nprivate final ScriptInstanceMetrics _instances = ScriptInstanceMetrics.create(\"%s\");\n",
+                scriptInterfaceFQN));
+
+        // Create the bulkhead field (if needed)
+        ScriptBulkhead bulkhead = scriptInterfaceElement.getAnnotation(ScriptBulkhead.class);
+        if (bulkhead != null && bulkhead.adaptive()) {
+            imports.add(ScriptConcurrencyLimiter.class.getName());
+            members.append(format("\nprivate final ScriptConcurrencyLimiter _bulkhead = "
+                    + "ScriptConcurrencyLimiter.createAdaptive(\"%s\", %d, %d, %d, %dL, %dL, %dL, _instances, %s);\n",
+                    scriptInterfaceFQN, bulkhead.minConcurrent(), bulkhead.maxConcurrent(), bulkhead.maxQueued(),
+                    bulkhead.maxQueueTimeMillis(), bulkhead.targetQueueTimeMillis(), bulkhead.maxMemoryBytes(),
+                    bulkhead.interactiveShare()));
+        } else if (bulkhead != null) {
+            imports.add(ScriptConcurrencyLimiter.class.getName());
+            members.append(format("\nprivate final ScriptConcurrencyLimiter _bulkhead = "
+                    + "ScriptConcurrencyLimiter.create(\"%s\", %d, %d, %dL, %s);\n", scriptInterfaceFQN,
+                    bulkhead.maxConcurrent(), bulkhead.maxQueued(), bulkhead.maxQueueTimeMillis(),
+                    bulkhead.interactiveShare()));
         }
+        // Calls wait for a bulkhead slot in the priority lane of their method, or else of the interface
+        ScriptPriority interfacePriority = scriptInterfaceElement.getAnnotation(ScriptPriority.class);
 
         // Create the _createDelegate() method
-        String createDelegateMethodBody = """
-                    String scriptLibrary = ScriptInterfaceUtils.loadScriptLibrary(SCRIPT_LIBRARY_LOCATION);
-                    return new PROXY_CLASS_NAME(scriptLibrary, context);
+        String createDelegateMethod = """
+
+                private PROXY_CLASS_NAME _createDelegate() {
+                    String scriptLibrary = ScriptInterfaceUtils.loadScriptLibrary(SCRIPT_LIBRARY_LOCATION, SCRIPT_BUNDLE_LOCATION);
+                    _instances.scriptLoaded(scriptLibrary);
+                    var _event = new ScriptInstantiateEvent("INTERFACE_FQN");
+                    _event.begin();
+                    try {
+                        return new PROXY_CLASS_NAME(scriptLibrary, context);
+                    } finally {
+                        _event.commit();
+                    }
+                }
                 """;
         if (!hasContextClass) {
-            createDelegateMethodBody = """
-                        String scriptLibrary = ScriptInterfaceUtils.loadScriptLibrary(SCRIPT_LIBRARY_LOCATION);
-                        return new PROXY_CLASS_NAME(scriptLibrary);
+            createDelegateMethod = createDelegateMethod.replace(", context)", ")");
+        }
+        members.append(template(createDelegateMethod, Map.of(
+                "PROXY_CLASS_NAME", proxyClassName,
+                "INTERFACE_FQN", scriptInterfaceFQN)));
+
+        // Create the tiered instantiator field (if needed), which takes over the creation of the delegates
+        ScriptTiered tiered = scriptInterfaceElement.getAnnotation(ScriptTiered.class);
+        String createDelegate = "_createDelegate()";
+        if (tiered != null) {
+            imports.add(ScriptTieredInstantiator.class.getName());
+            members.append(format("\nprivate final ScriptTieredInstantiator<%s> _tiers = "
+                    + "ScriptTieredInstantiator.create(\"%s\", %d, %d, _instances);\n", proxyClassName, scriptInterfaceFQN,
+                    tiered.promoteAfter(), tiered.warmInstances()));
+            createDelegate = "_tiers.take(this::_createDelegate)";
+        }
+
+        // Create the shadow runner field and the _createShadowDelegate() method (if needed)
+        ScriptShadow shadow = scriptInterfaceElement.getAnnotation(ScriptShadow.class);
+        if (shadow != null) {
+            imports.add(ScriptShadowRunner.class.getName());
+            members.append(format("\nprivate final ScriptShadowRunner _shadow = "
+                    + "ScriptShadowRunner.create(\"%s\", \"%s\", %s);\n", scriptInterfaceFQN, shadow.location(),
+                    shadow.sampleRate()));
+            String createShadowDelegateMethod = """
+
+                    private PROXY_CLASS_NAME _createShadowDelegate() {
+                        String scriptLibrary = ScriptInterfaceUtils.loadScriptLibrary(_shadow.getCandidateLocation());
+                        return new PROXY_CLASS_NAME(scriptLibrary, context);
+                    }
                     """;
+            if (!hasContextClass) {
+                createShadowDelegateMethod = createShadowDelegateMethod.replace(", context)", ")");
+            }
+            members.append(template(createShadowDelegateMethod, Map.of("PROXY_CLASS_NAME", proxyClassName)));
+        }
+
+        // Create the invocation recorder field (if needed)
+        ScriptRecorded recording = scriptInterfaceElement.getAnnotation(ScriptRecorded.class);
+        if (recording != null) {
+            imports.add(ScriptInvocationRecorder.class.getName());
+            members.append(format("\nprivate final ScriptInvocationRecorder _recorder = "
+                    + "ScriptInvocationRecorder.create(\"%s\", %s);\n", scriptInterfaceFQN, recording.sampleRate()));
+        }
+
+        // The warm instances and the recording file are closed with the bean, rather than left to daemon threads
+        StringBuilder closeStatements = new StringBuilder();
+        if (tiered != null) {
+            closeStatements.append("_tiers.close();\n");
+        }
+        if (recording != null) {
+            closeStatements.append("_recorder.close();\n");
+        }
+        if (closeStatements.length() > 0) {
+            imports.add(PreDestroy.class.getName());
+            members.append("\n@PreDestroy\nvoid _close() {\n").append(closeStatements.toString().indent(4)).append("}\n");
         }
-        MethodSource<JavaClassSource> createDelegateMethodSource = cdiBeanSource.addMethod();
-        createDelegateMethodSource.setPrivate();
-        createDelegateMethodSource.setReturnType(proxyClassName);
-        createDelegateMethodSource.setName("_createDelegate");
-        createDelegateMethodSource.setBody(template(createDelegateMethodBody, Map.of(
-                "PROXY_CLASS_NAME", proxyClassName)));
 
         // Implement all methods in the script interface
         Set<String> excludedMembers = Set.of(scriptInterfaceElement.getAnnotation(ScriptInterface.class).excluded());
+        Set<String> fieldNames = new HashSet<>();
         for (Element member : elements().getAllMembers(scriptInterfaceElement)) {
             if (member.getKind() == ElementKind.METHOD
                     && member instanceof ExecutableElement
                     && !excludedMembers.contains(member.getSimpleName().toString())) {
 
-                String methodName = member.getSimpleName().toString();
-                MethodSource<JavaClassSource> methodSource = cdiBeanSource.addMethod();
-                methodSource.setPublic();
-                methodSource.setName(methodName);
-                methodSource.addAnnotation(Override.class);
+                ExecutableElement method = (ExecutableElement) member;
+                String methodName = method.getSimpleName().toString();
 
-                List<String> paramNames = new ArrayList<>(((ExecutableElement) member).getParameters().size());
-                for (VariableElement parameter : ((ExecutableElement) member).getParameters()) {
+                List<String> params = new ArrayList<>(method.getParameters().size());
+                List<String> paramNames = new ArrayList<>(method.getParameters().size());
+                for (VariableElement parameter : method.getParameters()) {
                     String paramName = parameter.getSimpleName().toString();
-                    String paramType = parameter.asType().toString();
-                    if (paramType.contains(".")) {
-                        String paramTypeFQN = paramType;
-                        String paramTypeName = paramTypeFQN.substring(paramTypeFQN.lastIndexOf('.') + 1);
-                        methodSource.addParameter(paramTypeName, paramName);
-                        cdiBeanSource.addImport(paramTypeFQN);
-                    } else {
-                        methodSource.addParameter(paramType, paramName);
-                    }
+                    params.add(parameter.asType().toString() + " " + paramName);
                     paramNames.add(paramName);
                 }
 
-                String returnType = ((ExecutableElement) member).getReturnType().toString();
-                if (returnType.contains(".")) {
-                    String returnTypeFQN = returnType;
-                    String returnTypeName = returnTypeFQN.substring(returnTypeFQN.lastIndexOf('.') + 1);
-                    methodSource.setReturnType(returnTypeName);
-                    cdiBeanSource.addImport(returnTypeFQN);
-                } else {
-                    methodSource.setReturnType(returnType);
+                String returnType = method.getReturnType().toString();
+
+                List<String> thrownTypes = new ArrayList<>();
+                for (TypeMirror thrownType : method.getThrownTypes()) {
+                    thrownTypes.add(thrownType.toString());
                 }
 
-                List<? extends TypeMirror> thrownTypes = ((ExecutableElement) member).getThrownTypes();
-                for (TypeMirror thrownType : thrownTypes) {
-                    methodSource.addThrows(thrownType.toString());
+                // Recorded calls write a sample of their invocations (arguments and latency) to the recording. Only
+                // the call into the script is timed, as replays run the calls on an already created instance
+                String call = "delegate.METHOD_NAME(METHOD_ARGS)";
+                if (recording != null && thrownTypes.size() > 1) {
+                    log(WARNING, "@ScriptRecorded is ignored on method declaring more than one exception: " + methodName,
+                            method);
+                } else if (recording != null) {
+                    call = "_recorder.execute(\"METHOD_NAME\", new Object[] { METHOD_ARGS }, () -> "
+                            + ("void".equals(returnType) ? "{\n    " + call + ";\n    return null;\n})" : call + ")");
                 }
 
-                String methodBody = """
-                            try (var delegate = _createDelegate()) {
-                                RETURN delegate.METHOD_NAME(METHOD_ARGS);
+                // The invocation (including marshalling and builtin callbacks) is recorded as a JFR event
+                String invokeEvent = format("new ScriptInvokeEvent(\"%s\", \"%s\")", scriptInterfaceFQN, methodName);
+                String invocation = recorded(invokeEvent, ("void".equals(returnType) ? "" : "return ") + call + ";\n");
+                String cacheLookup = "";
+                String methodAnnotations = "@Override\n";
+
+                // Cacheable methods check the result cache before entering the script engine
+                ScriptCacheable cacheable = method.getAnnotation(ScriptCacheable.class);
+                if (cacheable != null && "void".equals(returnType)) {
+                    log(WARNING, "@ScriptCacheable is ignored on void method: " + methodName, method);
+                } else if (cacheable != null) {
+                    String cacheFieldName = uniqueFieldName(fieldNames, methodName, "_cache");
+                    imports.add(ScriptResultCache.class.getName());
+                    members.append(format("\nprivate final ScriptResultCache %s = ScriptResultCache.create(\"%s.%s\", %d, %dL);\n",
+                            cacheFieldName, scriptInterfaceFQN, methodName, cacheable.maxSize(), cacheable.ttlMillis()));
+
+                    methodAnnotations = "@Override\n@SuppressWarnings(\"unchecked\")\n";
+                    cacheLookup = template("""
+                            var cacheKey = ScriptResultCache.key(new Object[] { METHOD_ARGS });
+                            var cached = CACHE_FIELD.get(cacheKey);
+                            if (cached != null) {
+                                return (RESULT_TYPE) cached.value();
                             }
-                        """;
-                methodSource.setBody(template(methodBody, Map.of(
-                        "RETURN", "void".equals(returnType) ? "" : "return",
+                            """, Map.of("CACHE_FIELD", cacheFieldName, "RESULT_TYPE", returnType));
+                    invocation = template("RESULT_TYPE result;\n"
+                            + recorded(invokeEvent, "result = " + call + ";\n")
+                            + """
+                                    CACHE_FIELD.put(cacheKey, result);
+                                    return result;
+                                    """, Map.of("CACHE_FIELD", cacheFieldName, "RESULT_TYPE", returnType));
+                }
+
+                String methodBody = "_instances.opened();\ntry (var delegate = " + createDelegate + ") {\n"
+                        + invocation.indent(4)
+                        + "} finally {\n    _instances.closed();\n}\n";
+
+                // The bulkhead lane of the method, or else of the interface
+                ScriptPriority priority = method.getAnnotation(ScriptPriority.class);
+                if (priority == null) {
+                    priority = interfacePriority;
+                }
+                ScriptPriority.Level level = priority == null ? ScriptPriority.Level.INTERACTIVE : priority.value();
+                String lane = level == ScriptPriority.Level.INTERACTIVE ? "" : "ScriptPriority.Level." + level.name();
+
+                // Batched calls run their invocation on the instance shared by their batch, whose first call holds
+                // the bulkhead slot for the whole batch
+                ScriptBatched batched = method.getAnnotation(ScriptBatched.class);
+                boolean isBatched = false;
+                if (batched != null && thrownTypes.size() > 1) {
+                    log(WARNING, "@ScriptBatched is ignored on method declaring more than one exception: " + methodName,
+                            method);
+                } else if (batched != null) {
+                    isBatched = true;
+                    boolean isVoid = "void".equals(returnType);
+                    String batcherFieldName = uniqueFieldName(fieldNames, methodName, "_batcher");
+                    imports.add(ScriptCallBatcher.class.getName());
+                    String bulkheadArgs = "";
+                    if (bulkhead != null) {
+                        imports.add(ScriptPriority.class.getName());
+                        bulkheadArgs = ", _bulkhead, ScriptPriority.Level." + level.name();
+                    }
+                    members.append(format("\nprivate final ScriptCallBatcher<%s> %s = "
+                            + "ScriptCallBatcher.create(\"%s.%s\", %d, %dL, _instances%s);\n", proxyClassName,
+                            batcherFieldName, scriptInterfaceFQN, methodName, batched.maxItems(), batched.maxWaitMicros(),
+                            bulkheadArgs));
+                    String factory = tiered != null ? "() -> " + createDelegate : "this::_createDelegate";
+                    methodBody = (isVoid ? "" : "return ")
+                            + format("%s.execute(%s, delegate -> {\n", batcherFieldName, factory)
+                            + (isVoid ? invocation + "return null;\n" : invocation).indent(4) + "});\n";
+                }
+
+                // Shadowed calls replay a sample of their invocations against the candidate script
+                if (shadow != null && thrownTypes.size() > 1) {
+                    log(WARNING, "@ScriptShadow is ignored on method declaring more than one exception: " + methodName,
+                            method);
+                } else if (shadow != null) {
+                    boolean isVoid = "void".equals(returnType);
+                    String candidateInvocation = "try (var delegate = _createShadowDelegate()) {\n"
+                            + (isVoid ? "    delegate.METHOD_NAME(METHOD_ARGS);\n}\nreturn null;\n"
+                                    : "    return delegate.METHOD_NAME(METHOD_ARGS);\n}\n");
+                    methodBody = (isVoid ? "" : "return ") + "_shadow.execute(\"METHOD_NAME\", () -> {\n"
+                            + (isVoid ? methodBody + "return null;\n" : methodBody).indent(4) + "}, () -> {\n"
+                            + candidateInvocation.indent(4) + "});\n";
+                }
+
+                // Calls that need the script engine must hold a bulkhead permit (cache hits do not, and batched calls
+                // share the permit of their batch)
+                if (bulkhead != null && !isBatched) {
+                    if (!lane.isEmpty()) {
+                        imports.add(ScriptPriority.class.getName());
+                    }
+                    methodBody = "_bulkhead.acquire(" + lane + ");\ntry {\n" + methodBody.indent(4) + "} finally {\n"
+                            + "    _bulkhead.release(" + lane + ");\n}\n";
+                }
+
+                // Coalesced calls share the invocation (bulkhead permit included) of an identical in-flight call
+                ScriptCoalesced coalesced = method.getAnnotation(ScriptCoalesced.class);
+                if (coalesced != null && "void".equals(returnType)) {
+                    log(WARNING, "@ScriptCoalesced is ignored on void method: " + methodName, method);
+                } else if (coalesced != null && thrownTypes.size() > 1) {
+                    log(WARNING, "@ScriptCoalesced is ignored on method declaring more than one exception: " + methodName,
+                            method);
+                } else if (coalesced != null) {
+                    String coalescerFieldName = uniqueFieldName(fieldNames, methodName, "_coalescer");
+                    imports.add(ScriptCallCoalescer.class.getName());
+                    members.append(format("\nprivate final ScriptCallCoalescer %s = ScriptCallCoalescer.create(\"%s.%s\");\n",
+                            coalescerFieldName, scriptInterfaceFQN, methodName));
+
+                    String coalescingKey = cacheable != null ? "cacheKey"
+                            : "ScriptCallCoalescer.key(new Object[] { METHOD_ARGS })";
+                    methodBody = format("return %s.execute(%s, () -> {\n", coalescerFieldName, coalescingKey)
+                            + methodBody.indent(4) + "});\n";
+                }
+
+                methodBody = template(cacheLookup + methodBody, Map.of(
                         "METHOD_NAME", methodName,
-                        "METHOD_ARGS", String.join(",", paramNames))));
+                        "METHOD_ARGS", String.join(", ", paramNames)));
+
+                members.append("\n").append(methodAnnotations);
+                members.append(format("public %s %s(%s)%s {\n", returnType, methodName, String.join(", ", params),
+                        thrownTypes.isEmpty() ? "" : " throws " + String.join(", ", thrownTypes)));
+                members.append(methodBody.indent(4));
+                members.append("}\n");
             }
         }
 
+        String cdiBeanSource = javaSource(packageName, imports, format("""
+                @ApplicationScoped
+                public class %s implements %s {
+
+                %s}
+                """, cdiBeanClassName, scriptInterfaceName, members.toString().indent(4)));
+
         try (Writer writer = filer().createSourceFile(cdiBeanClassFQN, scriptInterfaceElement).openWriter()) {
-            writer.write(cdiBeanSource.toString());
+            writer.write(cdiBeanSource);
         } catch (IOException e) {
             log(ERROR, format("Failed to create %s file: %s", cdiBeanClassFQN, e), null);
         }
@@ -240,69 +440,90 @@ public class ScriptInterfaceProcessor extends AbstractProcessor {
 
         String packageName = getPackageName(scriptInterfaceElement).toString();
         String scriptInterfaceName = scriptInterfaceElement.getSimpleName().toString();
-        String scriptInterfaceFQN = packageName + "." + scriptInterfaceName;
         String factoryClassName = scriptInterfaceName + "_Factory";
         String factoryClassFQN = packageName + "." + factoryClassName;
         String proxyClassName = scriptInterfaceElement.getSimpleName().toString() + "_Proxy";
-        String proxyClassFQN = packageName + "." + proxyClassName;
 
         AnnotationMirror scriptInterfaceAnnotation = getScriptInterfaceAnnotation(scriptInterfaceElement);
         Element contextClass = getContextClassFromAnnotation(scriptInterfaceAnnotation);
 
         boolean hasContextClass = contextClass != null;
-        String contextClassName = "Void";
-
-        // Create the factory class and add all imports
-        JavaClassSource factorySource = Roaster.create(JavaClassSource.class);
-        factorySource.setPackage(packageName);
-        factorySource.setName(factoryClassName);
-        factorySource.addImport(ApplicationScoped.class);
-        factorySource.addImport(ScriptInterfaceFactory.class);
-        factorySource.addImport(scriptInterfaceFQN);
-        factorySource.addImport(proxyClassFQN);
-
-        factorySource.addAnnotation(ApplicationScoped.class);
-
-        if (hasContextClass) {
-            String contextClassPackage = getPackageName(contextClass).toString();
-            contextClassName = contextClass.getSimpleName().toString();
-            String contextClassFQN = contextClassPackage + "." + contextClassName;
-
-            factorySource.addImport(contextClassFQN);
-        }
+        String contextClassName = hasContextClass ? contextClass.toString() : "Void";
 
         // The factory class implements ScriptInterfaceFactory<T, C>
-        factorySource.addInterface(template("INTERFACE<TYPE, CONTEXT>", Map.of(
-                "INTERFACE", ScriptInterfaceFactory.class.getSimpleName(),
-                "TYPE", scriptInterfaceName,
-                "CONTEXT", contextClassName)));
-
-        // Create the create(String, Context) method
-        String produceMethodBody = """
-                    return new PROXY_CLASS_NAME(scriptLibrary, context);
+        String factoryClassBody = """
+                @ApplicationScoped
+                public class FACTORY_CLASS_NAME implements ScriptInterfaceFactory<INTERFACE_NAME, CONTEXT_TYPE> {
+
+                    @Override
+                    public INTERFACE_NAME create(String scriptLibrary, CONTEXT_TYPE context) {
+                        var _event = new ScriptInstantiateEvent("INTERFACE_FQN");
+                        _event.begin();
+                        try {
+                            return new PROXY_CLASS_NAME(scriptLibrary, context);
+                        } finally {
+                            _event.commit();
+                        }
+                    }
+                }
                 """;
         if (!hasContextClass) {
-            produceMethodBody = """
-                        return new PROXY_CLASS_NAME(scriptLibrary);
-                    """;
+            factoryClassBody = factoryClassBody.replace("(scriptLibrary, context);", "(scriptLibrary);");
         }
-        MethodSource<JavaClassSource> createMethodSource = factorySource.addMethod();
-        createMethodSource.setPublic();
-        createMethodSource.setReturnType(scriptInterfaceName);
-        createMethodSource.setName("create");
-        createMethodSource.addParameter("String", "scriptLibrary");
-        createMethodSource.addParameter(contextClassName, "context");
-        createMethodSource.setBody(template(produceMethodBody, Map.of(
+
+        Set<String> imports = new TreeSet<>();
+        imports.add(ApplicationScoped.class.getName());
+        imports.add(ScriptInterfaceFactory.class.getName());
+        imports.add(ScriptInstantiateEvent.class.getName());
+        String factorySource = javaSource(packageName, imports, template(factoryClassBody, Map.of(
+                "FACTORY_CLASS_NAME", factoryClassName,
+                "INTERFACE_NAME", scriptInterfaceName,
+                "INTERFACE_FQN", packageName + "." + scriptInterfaceName,
+                "CONTEXT_TYPE", contextClassName,
                 "PROXY_CLASS_NAME", proxyClassName)));
-        createMethodSource.addAnnotation(Override.class);
 
         try (Writer writer = filer().createSourceFile(factoryClassFQN, scriptInterfaceElement).openWriter()) {
-            writer.write(factorySource.toString());
+            writer.write(factorySource);
         } catch (IOException e) {
             log(ERROR, format("Failed to create %s file: %s", factoryClassFQN, e), null);
         }
     }
 
+    /**
+     * Returns a field name for the given method that is not used yet, e.g. {@code add_cache}, {@code add2_cache}
+     * for overloaded methods.
+     */
+    private static String uniqueFieldName(Set<String> fieldNames, String methodName, String suffix) {
+        String fieldName = methodName + suffix;
+        for (int i = 2; !fieldNames.add(fieldName); i++) {
+            fieldName = methodName + i + suffix;
+        }
+        return fieldName;
+    }
+
+    /**
+     * Wraps the given statements so that their duration is recorded by the given JFR event.
+     */
+    private static String recorded(String eventExpression, String statements) {
+        return "var _event = " + eventExpression + ";\n_event.begin();\ntry {\n" + statements.indent(4)
+                + "} finally {\n    _event.commit();\n}\n";
+    }
+
+    /**
+     * Assembles a Java source file from its package, imports and (already formatted) class declaration.
+     * Generated classes are simple templates, so they are written as plain text rather than through a
+     * full Java source model.
+     */
+    private static String javaSource(String packageName, Set<String> imports, String classDeclaration) {
+        StringBuilder source = new StringBuilder();
+        source.append("package ").append(packageName).append(";\n\n");
+        for (String anImport : imports) {
+            source.append("import ").append(anImport).append(";\n");
+        }
+        source.append("\n").append(classDeclaration);
+        return source.toString().replaceAll("(?m)[ \t]+$", "");
+    }
+
     /**
      * Generates comprehensive TypeScript definition file containing:
      * 1. Context builtins - Java methods callable from JavaScript
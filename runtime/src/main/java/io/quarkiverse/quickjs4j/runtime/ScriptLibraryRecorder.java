@@ -0,0 +1,20 @@
+package io.quarkiverse.quickjs4j.runtime;
+
+import java.util.List;
+
+import io.quarkiverse.quickjs4j.util.ScriptInterfaceUtils;
+import io.quarkus.runtime.annotations.Recorder;
+
+@Recorder
+public class ScriptLibraryRecorder {
+
+    /**
+     * Loads the given script libraries into memory. When recorded at static init in a native build, this
+     * runs at image build time and the scripts become part of the image heap.
+     */
+    public void embedScriptLibraries(List<String> locations) {
+        for (String location : locations) {
+            ScriptInterfaceUtils.embedScriptLibrary(location);
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package io.quarkiverse.quickjs4j.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import io.quarkiverse.quickjs4j.ScriptRejectedException;
+import io.quarkiverse.quickjs4j.annotations.ScriptPriority;
+
+/**
+ * Batches concurrent invocations of a script method onto a single script instance, used by the generated CDI
+ * beans for methods annotated with {@code @ScriptBatched}.
+ * <p>
+ * The first caller of a batch waits for up to {@code maxWaitMicros} microseconds, or until {@code maxItems}
+ * calls joined the batch, and then runs all of its invocations one after the other on one instance, so that
+ * the batch pays for a single engine instantiation and script compilation. Every caller receives the
+ * outcome of its own invocation. An invocation that fails discards the instance, and the rest of the batch
+ * continues on a new one.
+ * <p>
+ * The invocations of a batch run sequentially, so batching only pays off for cheap invocations, whose cost is
+ * dominated by the instantiation; batching CPU-bound invocations serializes them. With a bulkhead, the first
+ * caller holds a single slot for the whole batch while the others wait without one, and a rejection fails every
+ * call of the batch.
+ */
+public class ScriptCallBatcher<D extends AutoCloseable> {
+
+    private static final Logger LOGGER = Logger.getLogger(ScriptCallBatcher.class.getName());
+
+    private static final Map<String, ScriptCallBatcher<?>> BATCHERS = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new batcher and registers it under the given name (typically
+     * {@code <interface FQN>.<method name>}), replacing any batcher previously registered under that name.
+     *
+     * @param instances the metrics of the script instances created for the batches
+     */
+    public static <D extends AutoCloseable> ScriptCallBatcher<D> create(String name, int maxItems, long maxWaitMicros,
+            ScriptInstanceMetrics instances) {
+        return create(name, maxItems, maxWaitMicros, instances, null, ScriptPriority.Level.INTERACTIVE);
+    }
+
+    /**
+     * Creates a new batcher whose batches run while holding a slot of the given bulkhead, in the given lane, and
+     * registers it under the given name (typically {@code <interface FQN>.<method name>}), replacing any batcher
+     * previously registered under that name.
+     *
+     * @param instances the metrics of the script instances created for the batches
+     */
+    public static <D extends AutoCloseable> ScriptCallBatcher<D> create(String name, int maxItems, long maxWaitMicros,
+            ScriptInstanceMetrics instances, ScriptConcurrencyLimiter bulkhead, ScriptPriority.Level priority) {
+        ScriptCallBatcher<D> batcher = new ScriptCallBatcher<>(name, maxItems, maxWaitMicros, instances, bulkhead,
+                priority);
+        BATCHERS.put(name, batcher);
+        return batcher;
+    }
+
+    /**
+     * Returns all registered batchers, keyed by name.
+     */
+    public static Map<String, ScriptCallBatcher<?>> batchers() {
+        return Collections.unmodifiableMap(BATCHERS);
+    }
+
+    private final String name;
+    private final int maxItems;
+    private final long maxWaitNanos;
+    private final ScriptInstanceMetrics instances;
+    private final ScriptConcurrencyLimiter bulkhead;
+    private final ScriptPriority.Level priority;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition batchClosed = lock.newCondition();
+    // The batch that calls currently join, if any
+    private List<Call<D>> open;
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder calls = new LongAdder();
+
+    private ScriptCallBatcher(String name, int maxItems, long maxWaitMicros, ScriptInstanceMetrics instances,
+            ScriptConcurrencyLimiter bulkhead, ScriptPriority.Level priority) {
+        this.name = name;
+        this.maxItems = Math.max(1, maxItems);
+        this.maxWaitNanos = TimeUnit.MICROSECONDS.toNanos(Math.max(0, maxWaitMicros));
+        this.instances = instances;
+        this.bulkhead = bulkhead;
+        this.priority = priority;
+    }
+
+    /**
+     * Runs the given invocation as part of a batch, on an instance created by the given factory, and returns
+     * its outcome.
+     */
+    @SuppressWarnings("unchecked")
+    public <R, E extends Throwable> R execute(Supplier<? extends D> factory, Invocation<D, R, E> invocation) throws E {
+        Call<D> call = new Call<>(invocation);
+        List<Call<D>> batch;
+        boolean first;
+        lock.lock();
+        try {
+            first = open == null;
+            if (first) {
+                open = new ArrayList<>(Math.min(maxItems, 64));
+            }
+            batch = open;
+            batch.add(call);
+            if (batch.size() >= maxItems) {
+                open = null;
+                batchClosed.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (first) {
+            awaitBatch(batch);
+            run(batch, factory);
+        }
+        return (R) await(call.outcome);
+    }
+
+    private void awaitBatch(List<Call<D>> batch) {
+        boolean interrupted = false;
+        lock.lock();
+        try {
+            long remaining = maxWaitNanos;
+            while (open == batch && remaining > 0) {
+                try {
+                    remaining = batchClosed.awaitNanos(remaining);
+                } catch (InterruptedException e) {
+                    // Run the batch right away rather than abandoning the calls that joined it
+                    interrupted = true;
+                    break;
+                }
+            }
+            if (open == batch) {
+                open = null;
+            }
+        } finally {
+            lock.unlock();
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void run(List<Call<D>> batch, Supplier<? extends D> factory) {
+        batches.increment();
+        calls.add(batch.size());
+        if (bulkhead != null) {
+            try {
+                bulkhead.acquire(priority);
+            } catch (ScriptRejectedException e) {
+                for (Call<D> call : batch) {
+                    call.outcome.completeExceptionally(e);
+                }
+                return;
+            }
+        }
+        D delegate = null;
+        try {
+            for (Call<D> call : batch) {
+                if (delegate == null) {
+                    instances.opened();
+                    try {
+                        delegate = factory.get();
+                    } catch (Throwable e) {
+                        instances.closed();
+                        call.outcome.completeExceptionally(e);
+                        continue;
+                    }
+                }
+                try {
+                    call.outcome.complete(call.invocation.invoke(delegate));
+                } catch (Throwable e) {
+                    call.outcome.completeExceptionally(e);
+                    // The failure may have left the instance in an unusable state
+                    close(delegate);
+                    delegate = null;
+                }
+            }
+        } finally {
+            if (delegate != null) {
+                close(delegate);
+            }
+            if (bulkhead != null) {
+                bulkhead.release(priority);
+            }
+            for (Call<D> call : batch) {
+                call.outcome.completeExceptionally(new IllegalStateException("Batch of " + name + " was aborted"));
+            }
+        }
+    }
+
+    private void close(D delegate) {
+        try {
+            delegate.close();
+        } catch (Exception e) {
+            LOGGER.log(Level.FINE, "Failed to close a script instance of " + name, e);
+        } finally {
+            instances.closed();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E extends Throwable> Object await(CompletableFuture<Object> future) throws E {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return future.get();
+                } catch (InterruptedException e) {
+                    // The batch cannot be cancelled, so keep waiting for it
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    throw (E) e.getCause();
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxItems() {
+        return maxItems;
+    }
+
+    /**
+     * Returns the bulkhead the batches hold a slot of, or {@code null} if none.
+     */
+    public ScriptConcurrencyLimiter getBulkhead() {
+        return bulkhead;
+    }
+
+    public long getBatchCount() {
+        return batches.sum();
+    }
+
+    public long getCallCount() {
+        return calls.sum();
+    }
+
+    /**
+     * Returns the average number of calls per batch.
+     */
+    public double getAverageBatchSize() {
+        long n = getBatchCount();
+        return n == 0 ? 0 : (double) getCallCount() / n;
+    }
+
+    /**
+     * A script method invocation on the instance of its batch.
+     */
+    @FunctionalInterface
+    public interface Invocation<D, R, E extends Throwable> {
+        R invoke(D delegate) throws E;
+    }
+
+    private static class Call<D> {
+        final Invocation<D, ?, ?> invocation;
+        final CompletableFuture<Object> outcome = new CompletableFuture<>();
+
+        Call(Invocation<D, ?, ?> invocation) {
+            this.invocation = invocation;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package io.quarkiverse.quickjs4j.util;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Coalesces concurrent invocations of a script method with equal arguments into a single invocation,
+ * used by the generated CDI beans for methods annotated with {@code @ScriptCoalesced}. The first caller
+ * runs the invocation, and callers arriving while it is in flight wait for and share its outcome.
+ */
+public class ScriptCallCoalescer {
+
+    private static final Map<String, ScriptCallCoalescer> COALESCERS = new ConcurrentHashMap<>();
+    private static final List<Consumer<ScriptCallCoalescer>> LISTENERS = new CopyOnWriteArrayList<>();
+
+    /**
+     * Creates a new coalescer and registers it under the given name (typically
+     * {@code <interface FQN>.<method name>}), replacing any coalescer previously registered under that name.
+     */
+    public static ScriptCallCoalescer create(String name) {
+        ScriptCallCoalescer coalescer = new ScriptCallCoalescer(name);
+        COALESCERS.put(name, coalescer);
+        LISTENERS.forEach(listener -> listener.accept(coalescer));
+        return coalescer;
+    }
+
+    /**
+     * Returns all registered coalescers, keyed by name.
+     */
+    public static Map<String, ScriptCallCoalescer> coalescers() {
+        return Collections.unmodifiableMap(COALESCERS);
+    }
+
+    /**
+     * Registers a listener that is notified of all registered coalescers, and of coalescers registered later on.
+     */
+    public static void addListener(Consumer<ScriptCallCoalescer> listener) {
+        LISTENERS.add(listener);
+        COALESCERS.values().forEach(listener);
+    }
+
+    /**
+     * Removes a listener registered through {@link #addListener(Consumer)}.
+     */
+    public static void removeListener(Consumer<ScriptCallCoalescer> listener) {
+        LISTENERS.remove(listener);
+    }
+
+    /**
+     * Creates a coalescing key from the arguments of a script method invocation.
+     */
+    public static ScriptResultCache.Key key(Object... args) {
+        return ScriptResultCache.key(args);
+    }
+
+    private final String name;
+    private final Map<ScriptResultCache.Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    private ScriptCallCoalescer(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Runs the given invocation, unless an invocation with the same key is already in flight, in which case
+     * its outcome is awaited and returned instead.
+     */
+    @SuppressWarnings("unchecked")
+    public <R, E extends Throwable> R execute(ScriptResultCache.Key key, Invocation<R, E> invocation) throws E {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            coalesced.increment();
+            return (R) await(existing);
+        }
+
+        executions.increment();
+        try {
+            R result = invocation.invoke();
+            future.complete(result);
+            return result;
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E extends Throwable> Object await(CompletableFuture<Object> future) throws E {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return future.get();
+                } catch (InterruptedException e) {
+                    // The shared invocation cannot be cancelled, so keep waiting for it
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    throw (E) e.getCause();
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    public long getExecutionCount() {
+        return executions.sum();
+    }
+
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    /**
+     * A script method invocation.
+     */
+    @FunctionalInterface
+    public interface Invocation<R, E extends Throwable> {
+        R invoke() throws E;
+    }
+}
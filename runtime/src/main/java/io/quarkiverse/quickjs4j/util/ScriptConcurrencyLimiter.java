@@ -0,0 +1,434 @@
+package io.quarkiverse.quickjs4j.util;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import io.quarkiverse.quickjs4j.ScriptRejectedException;
+import io.quarkiverse.quickjs4j.annotations.ScriptPriority;
+
+/**
+ * Concurrency limit with a bounded wait queue, used by the generated CDI beans of script interfaces
+ * annotated with {@code @ScriptBulkhead}.
+ * <p>
+ * Callers wait in one of two {@link ScriptPriority} lanes. Waiting interactive callers are always admitted
+ * before waiting batch callers, and a share of the limit can be reserved for them: the reserved slots are
+ * never used by batch callers, while interactive callers may also use the slots of the batch share. Batch
+ * callers get the part of their share that interactive callers leave unused. Unless the whole limit is
+ * reserved, at least one slot is left to batch callers.
+ * <p>
+ * An adaptive limiter periodically resizes its limit (at most once per {@link #ADJUST_INTERVAL_MILLIS}):
+ * it grows while callers waited longer than the target queue time on average, or more callers are queued
+ * than the limit allows in, and the system load does not exceed the available processors. It shrinks by
+ * one when fewer callers than allowed were active. The limit never exceeds the maximum concurrency, nor
+ * the number of instances that fit in the memory budget.
+ */
+public class ScriptConcurrencyLimiter {
+
+    /**
+     * The minimum time (in milliseconds) between two adjustments of an adaptive limiter.
+     */
+    public static final long ADJUST_INTERVAL_MILLIS = 1000;
+
+    private static final Map<String, ScriptConcurrencyLimiter> LIMITERS = new ConcurrentHashMap<>();
+    private static final List<Consumer<ScriptConcurrencyLimiter>> LISTENERS = new CopyOnWriteArrayList<>();
+
+    private static final int INTERACTIVE = ScriptPriority.Level.INTERACTIVE.ordinal();
+    private static final int BATCH = ScriptPriority.Level.BATCH.ordinal();
+
+    /**
+     * Creates a new limiter and registers it under the given name (typically the script interface FQN),
+     * replacing any limiter previously registered under that name.
+     */
+    public static ScriptConcurrencyLimiter create(String name, int maxConcurrent, int maxQueued, long maxQueueTimeMillis) {
+        return create(name, maxConcurrent, maxQueued, maxQueueTimeMillis, 0);
+    }
+
+    /**
+     * Creates a new limiter reserving the given share of its slots for interactive callers, and registers it
+     * under the given name (typically the script interface FQN), replacing any limiter previously registered
+     * under that name.
+     */
+    public static ScriptConcurrencyLimiter create(String name, int maxConcurrent, int maxQueued, long maxQueueTimeMillis,
+            double interactiveShare) {
+        return register(new ScriptConcurrencyLimiter(name, 0, maxConcurrent, maxQueued, maxQueueTimeMillis, 0, 0, null,
+                interactiveShare));
+    }
+
+    /**
+     * Creates a new adaptive limiter and registers it under the given name (typically the script interface FQN),
+     * replacing any limiter previously registered under that name. The memory budget is only enforced when
+     * positive, using the estimated instance size of the given metrics.
+     */
+    public static ScriptConcurrencyLimiter createAdaptive(String name, int minConcurrent, int maxConcurrent, int maxQueued,
+            long maxQueueTimeMillis, long targetQueueTimeMillis, long maxMemoryBytes, ScriptInstanceMetrics instances,
+            double interactiveShare) {
+        return register(new ScriptConcurrencyLimiter(name, Math.max(1, minConcurrent), maxConcurrent, maxQueued,
+                maxQueueTimeMillis, targetQueueTimeMillis, maxMemoryBytes, instances, interactiveShare));
+    }
+
+    private static ScriptConcurrencyLimiter register(ScriptConcurrencyLimiter limiter) {
+        LIMITERS.put(limiter.name, limiter);
+        LISTENERS.forEach(listener -> listener.accept(limiter));
+        return limiter;
+    }
+
+    /**
+     * Returns all registered limiters, keyed by name.
+     */
+    public static Map<String, ScriptConcurrencyLimiter> limiters() {
+        return Collections.unmodifiableMap(LIMITERS);
+    }
+
+    /**
+     * Registers a listener that is notified of all registered limiters, and of limiters registered later on.
+     */
+    public static void addListener(Consumer<ScriptConcurrencyLimiter> listener) {
+        LISTENERS.add(listener);
+        LIMITERS.values().forEach(listener);
+    }
+
+    /**
+     * Removes a listener registered through {@link #addListener(Consumer)}.
+     */
+    public static void removeListener(Consumer<ScriptConcurrencyLimiter> listener) {
+        LISTENERS.remove(listener);
+    }
+
+    private final String name;
+    private final boolean adaptive;
+    private final int minConcurrent;
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final long maxQueueTimeMillis;
+    private final long targetQueueTimeNanos;
+    private final long maxMemoryBytes;
+    private final ScriptInstanceMetrics instances;
+    private final double interactiveShare;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition[] slotFreed = { lock.newCondition(), lock.newCondition() };
+    private final int[] active = new int[2];
+    private final int[] queued = new int[2];
+    private int limit;
+    private int reserved;
+    private long rejections;
+
+    // Load observed since the last adjustment
+    private long waits;
+    private long waitNanos;
+    private int peakActive;
+    private int peakQueued;
+    private long lastAdjusted = System.nanoTime();
+    private long increases;
+    private long decreases;
+
+    private ScriptConcurrencyLimiter(String name, int minConcurrent, int maxConcurrent, int maxQueued,
+            long maxQueueTimeMillis, long targetQueueTimeMillis, long maxMemoryBytes, ScriptInstanceMetrics instances,
+            double interactiveShare) {
+        this.name = name;
+        this.adaptive = minConcurrent > 0;
+        this.maxConcurrent = maxConcurrent > 0 ? maxConcurrent : Runtime.getRuntime().availableProcessors();
+        this.minConcurrent = adaptive ? Math.min(minConcurrent, this.maxConcurrent) : this.maxConcurrent;
+        this.maxQueued = Math.max(0, maxQueued);
+        this.maxQueueTimeMillis = Math.max(0, maxQueueTimeMillis);
+        this.targetQueueTimeNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, targetQueueTimeMillis));
+        this.maxMemoryBytes = maxMemoryBytes;
+        this.instances = instances;
+        this.interactiveShare = Math.min(1, Math.max(0, interactiveShare));
+        resize(this.minConcurrent);
+    }
+
+    /**
+     * Acquires a slot in the interactive lane, waiting in the queue if none is free.
+     *
+     * @throws ScriptRejectedException if the queue is full or no slot became free within the maximum queue time
+     */
+    public void acquire() {
+        acquire(ScriptPriority.Level.INTERACTIVE);
+    }
+
+    /**
+     * Acquires a slot in the given lane, waiting in the queue if none is free.
+     *
+     * @throws ScriptRejectedException if the queue is full or no slot became free within the maximum queue time
+     */
+    public void acquire(ScriptPriority.Level priority) {
+        int lane = priority.ordinal();
+        lock.lock();
+        try {
+            if (queued[lane] == 0 && canEnter(lane)) {
+                enter(lane);
+                return;
+            }
+
+            if (queued[INTERACTIVE] + queued[BATCH] >= maxQueued) {
+                rejections++;
+                throw new ScriptRejectedException("Script interface " + name + " is overloaded: wait queue is full");
+            }
+            queued[lane]++;
+            peakQueued = Math.max(peakQueued, queued[INTERACTIVE] + queued[BATCH]);
+            long start = System.nanoTime();
+            long remainingNanos = TimeUnit.MILLISECONDS.toNanos(maxQueueTimeMillis);
+            try {
+                while (!canEnter(lane)) {
+                    if (remainingNanos <= 0) {
+                        rejections++;
+                        throw new ScriptRejectedException("Script interface " + name
+                                + " is overloaded: no slot available after " + maxQueueTimeMillis + "ms");
+                    }
+                    remainingNanos = slotFreed[lane].awaitNanos(remainingNanos);
+                }
+                enter(lane);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                rejections++;
+                throw new ScriptRejectedException("Interrupted while waiting for script interface " + name, e);
+            } finally {
+                queued[lane]--;
+                waits++;
+                waitNanos += System.nanoTime() - start;
+                // A waiting interactive caller holds back batch callers, which may now be admitted
+                signalWaiters();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Releases a slot previously obtained through {@link #acquire()}.
+     */
+    public void release() {
+        release(ScriptPriority.Level.INTERACTIVE);
+    }
+
+    /**
+     * Releases a slot previously obtained through {@link #acquire(ScriptPriority.Level)} in the given lane.
+     */
+    public void release(ScriptPriority.Level priority) {
+        lock.lock();
+        try {
+            active[priority.ordinal()]--;
+            if (adaptive && System.nanoTime() - lastAdjusted >= TimeUnit.MILLISECONDS.toNanos(ADJUST_INTERVAL_MILLIS)) {
+                adjust();
+            }
+            signalWaiters();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean canEnter(int lane) {
+        int free = limit - active[INTERACTIVE] - active[BATCH];
+        if (free <= 0) {
+            return false;
+        }
+        if (lane == INTERACTIVE) {
+            return true;
+        }
+        // Interactive callers hold at least the reserved slots, whether busy or not
+        return queued[INTERACTIVE] == 0 && active[BATCH] + Math.max(active[INTERACTIVE], reserved) < limit;
+    }
+
+    private void enter(int lane) {
+        active[lane]++;
+        peakActive = Math.max(peakActive, active[INTERACTIVE] + active[BATCH]);
+    }
+
+    private void signalWaiters() {
+        if (queued[INTERACTIVE] > 0) {
+            slotFreed[INTERACTIVE].signal();
+        } else if (queued[BATCH] > 0) {
+            slotFreed[BATCH].signal();
+        }
+    }
+
+    /**
+     * Resizes the limit of an adaptive limiter to the load observed since the previous adjustment. Called
+     * periodically on release, but may also be called directly.
+     */
+    public void adjust() {
+        if (!adaptive) {
+            return;
+        }
+        lock.lock();
+        try {
+            lastAdjusted = System.nanoTime();
+            long averageWaitNanos = waits == 0 ? 0 : waitNanos / waits;
+            boolean waited = waits > 0;
+            int busy = peakActive;
+            int backlog = peakQueued;
+            waits = 0;
+            waitNanos = 0;
+            peakActive = active[INTERACTIVE] + active[BATCH];
+            peakQueued = queued[INTERACTIVE] + queued[BATCH];
+
+            int upperBound = getUpperBound();
+            int target = limit;
+            if (limit > upperBound) {
+                target = upperBound;
+            } else if ((averageWaitNanos > targetQueueTimeNanos || backlog > limit) && !isCpuSaturated()) {
+                // Grow by the backlog, at most doubling the limit
+                target = Math.min(upperBound, limit + Math.max(1, Math.min(backlog, limit)));
+            } else if (!waited && busy < limit) {
+                target = Math.max(minConcurrent, limit - 1);
+            }
+
+            if (target > limit) {
+                increases++;
+            } else if (target < limit) {
+                // Callers holding slots above the new limit keep them until they release them
+                decreases++;
+            }
+            resize(target);
+            for (Condition condition : slotFreed) {
+                condition.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void resize(int newLimit) {
+        limit = newLimit;
+        reserved = (int) Math.round(newLimit * interactiveShare);
+        if (interactiveShare < 1) {
+            reserved = Math.min(reserved, newLimit - 1);
+        }
+    }
+
+    private int getUpperBound() {
+        int upperBound = maxConcurrent;
+        if (maxMemoryBytes > 0 && instances != null) {
+            long instanceBytes = Math.max(1, instances.getEstimatedInstanceBytes());
+            upperBound = (int) Math.min(upperBound, maxMemoryBytes / instanceBytes);
+        }
+        return Math.max(minConcurrent, upperBound);
+    }
+
+    private static boolean isCpuSaturated() {
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        // The load average is negative when not available on the platform
+        return os.getSystemLoadAverage() >= os.getAvailableProcessors();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isAdaptive() {
+        return adaptive;
+    }
+
+    public int getMinConcurrent() {
+        return minConcurrent;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public int getMaxQueued() {
+        return maxQueued;
+    }
+
+    public double getInteractiveShare() {
+        return interactiveShare;
+    }
+
+    /**
+     * Returns the current concurrency limit, which only differs from the maximum for adaptive limiters.
+     */
+    public int getLimit() {
+        lock.lock();
+        try {
+            return limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of slots of the current limit reserved for interactive callers.
+     */
+    public int getReservedCount() {
+        lock.lock();
+        try {
+            return reserved;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getActiveCount() {
+        lock.lock();
+        try {
+            return active[INTERACTIVE] + active[BATCH];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getActiveCount(ScriptPriority.Level priority) {
+        lock.lock();
+        try {
+            return active[priority.ordinal()];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueueDepth() {
+        lock.lock();
+        try {
+            return queued[INTERACTIVE] + queued[BATCH];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueueDepth(ScriptPriority.Level priority) {
+        lock.lock();
+        try {
+            return queued[priority.ordinal()];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getRejectionCount() {
+        lock.lock();
+        try {
+            return rejections;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getIncreaseCount() {
+        lock.lock();
+        try {
+            return increases;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getDecreaseCount() {
+        lock.lock();
+        try {
+            return decreases;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package io.quarkiverse.quickjs4j.util;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import io.quarkiverse.quickjs4j.ScriptInstanceRegistry;
+
+/**
+ * Tracks the script instances of a script interface, used by the generated CDI beans.
+ * <p>
+ * The engine heap lives inside the Wasm linear memory of each instance and is not observable from the
+ * extension, so memory usage is estimated in the same way as {@link ScriptInstanceRegistry} does: a fixed
+ * {@link ScriptInstanceRegistry#DEFAULT_INSTANCE_BYTES} per instance plus the size of its script.
+ */
+public class ScriptInstanceMetrics {
+
+    private static final Map<String, ScriptInstanceMetrics> METRICS = new ConcurrentHashMap<>();
+    private static final List<Consumer<ScriptInstanceMetrics>> LISTENERS = new CopyOnWriteArrayList<>();
+
+    /**
+     * Creates new metrics and registers them under the given name (typically the script interface FQN),
+     * replacing any metrics previously registered under that name.
+     */
+    public static ScriptInstanceMetrics create(String name) {
+        ScriptInstanceMetrics metrics = new ScriptInstanceMetrics(name);
+        METRICS.put(name, metrics);
+        LISTENERS.forEach(listener -> listener.accept(metrics));
+        return metrics;
+    }
+
+    /**
+     * Returns all registered metrics, keyed by name.
+     */
+    public static Map<String, ScriptInstanceMetrics> metrics() {
+        return Collections.unmodifiableMap(METRICS);
+    }
+
+    /**
+     * Returns a snapshot of all registered metrics, keyed by name.
+     */
+    public static Map<String, Snapshot> snapshot() {
+        Map<String, Snapshot> snapshot = new TreeMap<>();
+        METRICS.forEach((name, metrics) -> snapshot.put(name, metrics.getSnapshot()));
+        return Collections.unmodifiableMap(snapshot);
+    }
+
+    /**
+     * Registers a listener that is notified of all registered metrics, and of metrics registered later on.
+     */
+    public static void addListener(Consumer<ScriptInstanceMetrics> listener) {
+        LISTENERS.add(listener);
+        METRICS.values().forEach(listener);
+    }
+
+    /**
+     * Removes a listener registered through {@link #addListener(Consumer)}.
+     */
+    public static void removeListener(Consumer<ScriptInstanceMetrics> listener) {
+        LISTENERS.remove(listener);
+    }
+
+    private final String name;
+    private final AtomicInteger live = new AtomicInteger();
+    private final AtomicInteger peak = new AtomicInteger();
+    private final AtomicInteger warm = new AtomicInteger();
+    private final LongAdder created = new LongAdder();
+    private volatile long scriptSize;
+
+    private ScriptInstanceMetrics(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Records that an instance is being created.
+     */
+    public void opened() {
+        int current = live.incrementAndGet();
+        peak.accumulateAndGet(current, Math::max);
+        created.increment();
+    }
+
+    /**
+     * Records that an instance was instantiated ahead of time, and is waiting for a call in a warm pool.
+     */
+    public void warmed() {
+        warm.incrementAndGet();
+        int current = live.incrementAndGet();
+        peak.accumulateAndGet(current, Math::max);
+    }
+
+    /**
+     * Records that an instance left the warm pool, either taken by a call (which then records it as
+     * {@link #opened()}) or closed.
+     */
+    public void unwarmed() {
+        warm.decrementAndGet();
+        live.decrementAndGet();
+    }
+
+    /**
+     * Records the script library loaded by the instances.
+     */
+    public void scriptLoaded(String scriptLibrary) {
+        scriptSize = scriptLibrary == null ? 0 : scriptLibrary.length();
+    }
+
+    /**
+     * Records that an instance was closed.
+     */
+    public void closed() {
+        live.decrementAndGet();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the number of instances being created, in use or waiting in a warm pool.
+     */
+    public int getLiveInstances() {
+        return live.get();
+    }
+
+    /**
+     * Returns the number of instances instantiated ahead of time and waiting for a call.
+     */
+    public int getWarmInstances() {
+        return warm.get();
+    }
+
+    public int getPeakInstances() {
+        return peak.get();
+    }
+
+    /**
+     * Returns the number of instances handed to calls. Instances instantiated ahead of time are counted when a
+     * call takes them.
+     */
+    public long getCreatedCount() {
+        return created.sum();
+    }
+
+    public long getEstimatedMemoryBytes() {
+        return live.get() * getEstimatedInstanceBytes();
+    }
+
+    /**
+     * Returns the estimated memory used by a single instance.
+     */
+    public long getEstimatedInstanceBytes() {
+        return ScriptInstanceRegistry.DEFAULT_INSTANCE_BYTES + 2L * scriptSize;
+    }
+
+    public Snapshot getSnapshot() {
+        return new Snapshot(getLiveInstances(), getPeakInstances(), getCreatedCount(), getEstimatedMemoryBytes());
+    }
+
+    /**
+     * Point-in-time view of the instances of a script interface.
+     */
+    public static class Snapshot {
+        private final int liveInstances;
+        private final int peakInstances;
+        private final long createdCount;
+        private final long estimatedMemoryBytes;
+
+        Snapshot(int liveInstances, int peakInstances, long createdCount, long estimatedMemoryBytes) {
+            this.liveInstances = liveInstances;
+            this.peakInstances = peakInstances;
+            this.createdCount = createdCount;
+            this.estimatedMemoryBytes = estimatedMemoryBytes;
+        }
+
+        public int getLiveInstances() {
+            return liveInstances;
+        }
+
+        public int getPeakInstances() {
+            return peakInstances;
+        }
+
+        public long getCreatedCount() {
+            return createdCount;
+        }
+
+        public long getEstimatedMemoryBytes() {
+            return estimatedMemoryBytes;
+        }
+    }
+}
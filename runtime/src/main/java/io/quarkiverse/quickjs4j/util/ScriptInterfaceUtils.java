@@ -10,42 +10,126 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
+import io.quarkiverse.quickjs4j.jfr.ScriptLoadEvent;
+
 public class ScriptInterfaceUtils {
 
     private static final Logger LOGGER = Logger.getLogger(ScriptInterfaceUtils.class.getName());
 
+    private static final Map<String, String> EMBEDDED_SCRIPT_LIBRARIES = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the classpath location of the build-time bundle of the script of the script interface with the
+     * given fully qualified name. Bundles are keyed by the qualified name, so that script interfaces with the
+     * same simple name in different packages do not share a bundle.
+     */
+    public static String bundleLocation(String scriptInterfaceFQN) {
+        return "META-INF/quickjs4j/" + scriptInterfaceFQN + ".bundle.js";
+    }
+
+    /**
+     * Loads the classpath resource at the given location into memory, so that later loads of that location
+     * do not read the resource again. Scripts on the file system are still preferred over embedded ones.
+     */
+    public static void embedScriptLibrary(String location) {
+        URL resourceUrl = Thread.currentThread().getContextClassLoader().getResource(location);
+        if (resourceUrl != null) {
+            EMBEDDED_SCRIPT_LIBRARIES.put(location, loadScriptLibrary(resourceUrl));
+        } else {
+            LOGGER.warning("Script library [" + location + "] not found, it will not be embedded");
+        }
+    }
+
+    /**
+     * Loads a script library, preferring its build-time bundle (if any) over the original classpath resource.
+     * A script found on the file system is always loaded as-is.
+     */
+    public static String loadScriptLibrary(String scriptLocation, String bundleLocation) {
+        ScriptLoadEvent event = new ScriptLoadEvent(scriptLocation);
+        event.begin();
+        try {
+            Path path = resolvePath(scriptLocation);
+            if (!Files.exists(path)) {
+                String embeddedBundle = EMBEDDED_SCRIPT_LIBRARIES.get(bundleLocation);
+                if (embeddedBundle != null) {
+                    event.loaded("embedded:" + bundleLocation, embeddedBundle);
+                    return embeddedBundle;
+                }
+                URL bundleUrl = Thread.currentThread().getContextClassLoader().getResource(bundleLocation);
+                if (bundleUrl != null) {
+                    LOGGER.fine("Script library bundle for " + scriptLocation + " found at: " + bundleUrl.toExternalForm());
+                    String scriptLibrary = loadScriptLibrary(bundleUrl);
+                    event.loaded(bundleUrl.toExternalForm(), scriptLibrary);
+                    return scriptLibrary;
+                }
+            }
+            return findScriptLibrary(scriptLocation, event);
+        } finally {
+            event.commit();
+        }
+    }
+
     public static String loadScriptLibrary(String scriptLocation) {
+        ScriptLoadEvent event = new ScriptLoadEvent(scriptLocation);
+        event.begin();
+        try {
+            return findScriptLibrary(scriptLocation, event);
+        } finally {
+            event.commit();
+        }
+    }
+
+    private static String findScriptLibrary(String scriptLocation, ScriptLoadEvent event) {
         LOGGER.fine("Loading script library from: " + scriptLocation);
 
-        Path path = Paths.get(scriptLocation);
-        if (!path.isAbsolute()) {
-            String workingDir = System.getProperty("user.dir");
-            path = Paths.get(workingDir).resolve(path).normalize();
-        }
+        Path path = resolvePath(scriptLocation);
         if (Files.exists(path)) {
             LOGGER.fine("Script library file found at: " + path.toAbsolutePath());
-            return loadScriptLibrary(path);
+            String scriptLibrary = loadScriptLibrary(path);
+            event.loaded(path.toUri().toString(), scriptLibrary);
+            return scriptLibrary;
+        }
+
+        String embedded = EMBEDDED_SCRIPT_LIBRARIES.get(scriptLocation);
+        if (embedded != null) {
+            event.loaded("embedded:" + scriptLocation, embedded);
+            return embedded;
         }
 
         URL resourceUrl = Thread.currentThread().getContextClassLoader().getResource(scriptLocation);
         if (resourceUrl != null) {
             LOGGER.fine("Script library resource [1] found at: " + resourceUrl.toExternalForm());
-            return loadScriptLibrary(resourceUrl);
+            String scriptLibrary = loadScriptLibrary(resourceUrl);
+            event.loaded(resourceUrl.toExternalForm(), scriptLibrary);
+            return scriptLibrary;
         }
 
         resourceUrl = ScriptInterfaceUtils.class.getClassLoader().getResource(scriptLocation);
         if (resourceUrl != null) {
             LOGGER.fine("Script library resource [2] found at: " + resourceUrl.toExternalForm());
-            return loadScriptLibrary(resourceUrl);
+            String scriptLibrary = loadScriptLibrary(resourceUrl);
+            event.loaded(resourceUrl.toExternalForm(), scriptLibrary);
+            return scriptLibrary;
         }
 
         LOGGER.warning("Script library [" + scriptLocation + "] not found!!");
         return null;
     }
 
+    private static Path resolvePath(String scriptLocation) {
+        Path path = Paths.get(scriptLocation);
+        if (!path.isAbsolute()) {
+            String workingDir = System.getProperty("user.dir");
+            path = Paths.get(workingDir).resolve(path).normalize();
+        }
+        return path;
+    }
+
     public static String loadScriptLibrary(URL scriptLocation) {
         try {
             URLConnection connection = scriptLocation.openConnection();
@@ -0,0 +1,471 @@
+package io.quarkiverse.quickjs4j.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Records a sample of the invocations of a script interface to an append-only file, used by the generated
+ * CDI beans of script interfaces annotated with {@code @ScriptRecorded}.
+ * <p>
+ * Recordings are only written when the {@value #DIRECTORY_PROPERTY} system property is set, to
+ * {@code <directory>/<name>.recording}. Each record holds the interface and method names, the time of the
+ * invocation, its latency, whether it failed and its arguments serialized as a JSON array. Invocations whose
+ * arguments cannot be serialized are skipped. The generated beans only record the call into the script, so the
+ * latency excludes the creation of the script instance and any wait in a bulkhead or batch.
+ * <p>
+ * Records are written asynchronously by a single writer per file, shared by all the recorders of that file and
+ * closed with the last of them. When the writer falls behind, records are dropped rather than delaying calls.
+ */
+public class ScriptInvocationRecorder {
+
+    /**
+     * The system property holding the directory recordings are written to.
+     */
+    public static final String DIRECTORY_PROPERTY = "quickjs4j.recording.dir";
+
+    private static final Logger LOGGER = Logger.getLogger(ScriptInvocationRecorder.class.getName());
+
+    private static final Map<String, ScriptInvocationRecorder> RECORDERS = new ConcurrentHashMap<>();
+
+    // File header: "QJSR" and the format version
+    private static final int MAGIC = 0x514A5352;
+    private static final int VERSION = 1;
+
+    static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /**
+     * Creates a new recorder and registers it under the given name (typically the script interface FQN),
+     * replacing any recorder previously registered under that name.
+     */
+    public static ScriptInvocationRecorder create(String name, double sampleRate) {
+        String directory = System.getProperty(DIRECTORY_PROPERTY);
+        ScriptInvocationRecorder recorder = new ScriptInvocationRecorder(name, sampleRate,
+                directory == null ? null : Paths.get(directory).resolve(name + ".recording"));
+        RECORDERS.put(name, recorder);
+        return recorder;
+    }
+
+    /**
+     * Returns all registered recorders, keyed by name.
+     */
+    public static Map<String, ScriptInvocationRecorder> recorders() {
+        return Collections.unmodifiableMap(RECORDERS);
+    }
+
+    /**
+     * Reads all the records of a recording file.
+     */
+    public static List<Record> read(Path file) throws IOException {
+        List<Record> records = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a script invocation recording: " + file);
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported recording version " + version + ": " + file);
+            }
+            while (true) {
+                try {
+                    String scriptInterface = in.readUTF();
+                    String method = in.readUTF();
+                    long timestamp = in.readLong();
+                    long latencyNanos = in.readLong();
+                    boolean failed = in.readBoolean();
+                    byte[] arguments = new byte[in.readInt()];
+                    in.readFully(arguments);
+                    records.add(new Record(scriptInterface, method, timestamp, latencyNanos, failed, arguments));
+                } catch (EOFException e) {
+                    // End of the recording, possibly with a record truncated by a crash
+                    break;
+                }
+            }
+        }
+        return records;
+    }
+
+    private final String name;
+    private final double sampleRate;
+    private final Path file;
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private RecordingWriter writer;
+    private boolean closed;
+
+    private ScriptInvocationRecorder(String name, double sampleRate, Path file) {
+        this.name = name;
+        this.sampleRate = Math.min(1, Math.max(0, sampleRate));
+        this.file = file;
+    }
+
+    /**
+     * Runs the invocation and returns its outcome, recording it if the call is sampled.
+     */
+    public <R, E extends Throwable> R execute(String method, Object[] args, Invocation<R, E> invocation) throws E {
+        if (file == null || sampleRate == 0 || ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return invocation.invoke();
+        }
+
+        long start = System.nanoTime();
+        R result;
+        try {
+            result = invocation.invoke();
+        } catch (Throwable e) {
+            record(method, args, System.nanoTime() - start, true);
+            throw e;
+        }
+        record(method, args, System.nanoTime() - start, false);
+        return result;
+    }
+
+    private void record(String method, Object[] args, long latencyNanos, boolean invocationFailed) {
+        byte[] record;
+        try {
+            byte[] arguments = MAPPER.writeValueAsBytes(args);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(arguments.length + 64);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeUTF(name);
+            out.writeUTF(method);
+            out.writeLong(System.currentTimeMillis());
+            out.writeLong(latencyNanos);
+            out.writeBoolean(invocationFailed);
+            out.writeInt(arguments.length);
+            out.write(arguments);
+            record = bytes.toByteArray();
+        } catch (IOException e) {
+            skipped.increment();
+            LOGGER.log(Level.FINE, "Cannot serialize the arguments of " + name + "." + method, e);
+            return;
+        }
+
+        RecordingWriter writer = writer();
+        if (writer == null || !writer.offer(this, record)) {
+            dropped.increment();
+        }
+    }
+
+    private synchronized RecordingWriter writer() {
+        if (writer == null && !closed) {
+            // Acquired on the first sampled call, so that instances which never record (e.g. client proxies)
+            // do not hold the writer
+            writer = RecordingWriter.acquire(file);
+        }
+        return writer;
+    }
+
+    /**
+     * Waits until the records of the calls completed so far are written to the recording file.
+     */
+    public void flush() throws InterruptedException {
+        RecordingWriter writer;
+        synchronized (this) {
+            writer = this.writer;
+        }
+        if (writer != null) {
+            writer.flush();
+        }
+    }
+
+    /**
+     * Stops recording, writing the pending records and closing the recording file once no other recorder
+     * writes to it. Called when the generated bean is destroyed.
+     */
+    public void close() {
+        RecordingWriter writer;
+        synchronized (this) {
+            closed = true;
+            writer = this.writer;
+            this.writer = null;
+        }
+        RECORDERS.remove(name, this);
+        if (writer != null) {
+            RecordingWriter.release(writer);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * Returns the recording file, or {@code null} if recording is disabled.
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    public long getRecordedCount() {
+        return recorded.sum();
+    }
+
+    public long getSkippedCount() {
+        return skipped.sum();
+    }
+
+    /**
+     * Returns the number of sampled calls not recorded because the write queue was full or writing failed.
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * A recorded invocation.
+     */
+    public static class Record {
+
+        private final String scriptInterface;
+        private final String method;
+        private final long timestamp;
+        private final long latencyNanos;
+        private final boolean failed;
+        private final byte[] arguments;
+
+        Record(String scriptInterface, String method, long timestamp, long latencyNanos, boolean failed,
+                byte[] arguments) {
+            this.scriptInterface = scriptInterface;
+            this.method = method;
+            this.timestamp = timestamp;
+            this.latencyNanos = latencyNanos;
+            this.failed = failed;
+            this.arguments = arguments;
+        }
+
+        public String getScriptInterface() {
+            return scriptInterface;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        /**
+         * Returns when the invocation was recorded, in milliseconds since the epoch.
+         */
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public long getLatencyNanos() {
+            return latencyNanos;
+        }
+
+        public boolean isFailed() {
+            return failed;
+        }
+
+        /**
+         * Returns the arguments of the invocation, serialized as a JSON array.
+         */
+        public byte[] getArguments() {
+            return arguments;
+        }
+    }
+
+    /**
+     * Appends the records of all recorders of a recording file from a background thread, so that sampled calls
+     * neither wait for the file nor for each other. Records are queued up to a bounded capacity (and dropped
+     * beyond it), and the file is flushed when the writer is idle, when asked to, and otherwise every
+     * {@value #FLUSH_INTERVAL_MILLIS} ms.
+     */
+    private static class RecordingWriter implements Runnable {
+
+        // Guarded by WRITERS
+        private static final Map<Path, RecordingWriter> WRITERS = new HashMap<>();
+
+        private static final int QUEUE_CAPACITY = 4096;
+        private static final long FLUSH_INTERVAL_MILLIS = 1000;
+        private static final Object CLOSE = new Object();
+
+        static RecordingWriter acquire(Path file) {
+            synchronized (WRITERS) {
+                RecordingWriter writer = WRITERS.computeIfAbsent(file, RecordingWriter::new);
+                writer.references++;
+                return writer;
+            }
+        }
+
+        static void release(RecordingWriter writer) {
+            synchronized (WRITERS) {
+                if (--writer.references > 0) {
+                    return;
+                }
+                WRITERS.remove(writer.file);
+                // Waits for the pending records while holding the lock, so that a new writer of the same file
+                // only appends once this one is closed
+                writer.close();
+            }
+        }
+
+        private final Path file;
+        private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        private final Thread thread;
+        private DataOutputStream out;
+        private volatile boolean failed;
+        private int references;
+
+        private RecordingWriter(Path file) {
+            this.file = file;
+            try {
+                if (file.getParent() != null) {
+                    Files.createDirectories(file.getParent());
+                }
+                boolean empty = !Files.exists(file) || Files.size(file) == 0;
+                OutputStream stream = Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                out = new DataOutputStream(new BufferedOutputStream(stream));
+                if (empty) {
+                    out.writeInt(MAGIC);
+                    out.writeInt(VERSION);
+                    out.flush();
+                }
+            } catch (IOException e) {
+                fail(e);
+            }
+            thread = new Thread(this, "quickjs4j-recorder");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        boolean offer(ScriptInvocationRecorder recorder, byte[] record) {
+            return !failed && queue.offer(new Pending(recorder, record));
+        }
+
+        void flush() throws InterruptedException {
+            CountDownLatch flushed = new CountDownLatch(1);
+            queue.put(flushed);
+            flushed.await();
+        }
+
+        private void close() {
+            try {
+                queue.put(CLOSE);
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void run() {
+            long lastFlush = System.nanoTime();
+            boolean dirty = false;
+            while (true) {
+                Object item;
+                try {
+                    item = queue.poll(FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    item = CLOSE;
+                }
+                if (item instanceof Pending) {
+                    Pending pending = (Pending) item;
+                    write(pending.record);
+                    pending.recorder.recorded.increment();
+                    dirty = true;
+                }
+                // Flushed when idle, when asked to, or periodically under a steady stream of records
+                if (dirty && (!(item instanceof Pending)
+                        || System.nanoTime() - lastFlush >= TimeUnit.MILLISECONDS.toNanos(FLUSH_INTERVAL_MILLIS))) {
+                    flushStream();
+                    lastFlush = System.nanoTime();
+                    dirty = false;
+                }
+                if (item instanceof CountDownLatch) {
+                    ((CountDownLatch) item).countDown();
+                } else if (item == CLOSE) {
+                    closeStream();
+                    return;
+                }
+            }
+        }
+
+        private void write(byte[] record) {
+            if (failed) {
+                return;
+            }
+            try {
+                out.write(record);
+            } catch (IOException e) {
+                fail(e);
+            }
+        }
+
+        private void flushStream() {
+            if (failed) {
+                return;
+            }
+            try {
+                out.flush();
+            } catch (IOException e) {
+                fail(e);
+            }
+        }
+
+        private void closeStream() {
+            if (out == null) {
+                return;
+            }
+            try {
+                out.close();
+            } catch (IOException e) {
+                if (!failed) {
+                    fail(e);
+                }
+            }
+        }
+
+        private void fail(IOException e) {
+            failed = true;
+            LOGGER.log(Level.WARNING, "Failed to write script invocation recording " + file + ", recording stopped", e);
+        }
+    }
+
+    private static class Pending {
+
+        final ScriptInvocationRecorder recorder;
+        final byte[] record;
+
+        Pending(ScriptInvocationRecorder recorder, byte[] record) {
+            this.recorder = recorder;
+            this.record = record;
+        }
+    }
+
+    /**
+     * A script method invocation.
+     */
+    @FunctionalInterface
+    public interface Invocation<R, E extends Throwable> {
+        R invoke() throws E;
+    }
+}
@@ -0,0 +1,234 @@
+package io.quarkiverse.quickjs4j.util;
+
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Replays the invocations recorded by {@link ScriptInvocationRecorder} against a script interface instance,
+ * e.g. backed by another version of its script, and reports the throughput and latency per method.
+ * <p>
+ * Recorded latencies only cover the call into the script, not the creation of the instance, so that they can be
+ * compared with replayed latencies. It can be run from the command line, passing the context class of script
+ * interfaces with a context (which must then have a public no-argument constructor):
+ *
+ * <pre>
+ * java -cp &lt;application classpath&gt; io.quarkiverse.quickjs4j.util.ScriptInvocationReplay \
+ *     &lt;recording file&gt; &lt;script location&gt; [iterations] [context class]
+ * </pre>
+ *
+ * Contexts that need to be wired (e.g. CDI beans) must be created by the caller of
+ * {@link #replay(Path, Class, Supplier, int)} instead.
+ */
+public class ScriptInvocationReplay {
+
+    /**
+     * Replays the recorded invocations of the given script interface the given number of times on a single
+     * instance, after one warm-up pass. The instance is closed afterwards if it is {@link AutoCloseable}.
+     */
+    public static <T> Report replay(Path recording, Class<T> scriptInterface, Supplier<? extends T> instances,
+            int iterations) throws IOException {
+        List<Call> calls = new ArrayList<>();
+        for (ScriptInvocationRecorder.Record record : ScriptInvocationRecorder.read(recording)) {
+            if (record.getScriptInterface().equals(scriptInterface.getName())) {
+                calls.add(toCall(scriptInterface, record));
+            }
+        }
+
+        T instance = instances.get();
+        try {
+            Report report = new Report();
+            run(instance, calls, null);
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                run(instance, calls, report);
+            }
+            report.elapsedNanos = System.nanoTime() - start;
+            return report;
+        } finally {
+            if (instance instanceof AutoCloseable) {
+                try {
+                    ((AutoCloseable) instance).close();
+                } catch (Exception e) {
+                    throw new IllegalStateException("Failed to close script interface instance", e);
+                }
+            }
+        }
+    }
+
+    private static Call toCall(Class<?> scriptInterface, ScriptInvocationRecorder.Record record) throws IOException {
+        JsonNode arguments = ScriptInvocationRecorder.MAPPER.readTree(record.getArguments());
+        for (Method method : scriptInterface.getMethods()) {
+            if (method.getName().equals(record.getMethod()) && method.getParameterCount() == arguments.size()) {
+                Object[] args = new Object[arguments.size()];
+                for (int i = 0; i < args.length; i++) {
+                    args[i] = ScriptInvocationRecorder.MAPPER.convertValue(arguments.get(i),
+                            ScriptInvocationRecorder.MAPPER.constructType(method.getGenericParameterTypes()[i]));
+                }
+                return new Call(method, args, record.getLatencyNanos());
+            }
+        }
+        throw new IllegalArgumentException("No method " + record.getMethod() + " with " + arguments.size()
+                + " parameters in " + scriptInterface.getName());
+    }
+
+    private static void run(Object instance, List<Call> calls, Report report) {
+        for (Call call : calls) {
+            long start = System.nanoTime();
+            boolean failed = false;
+            try {
+                call.method.invoke(instance, call.args);
+            } catch (InvocationTargetException e) {
+                failed = true;
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+            if (report != null) {
+                report.record(call, System.nanoTime() - start, failed);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println(
+                    "Usage: ScriptInvocationReplay <recording file> <script location> [iterations] [context class]");
+            System.exit(1);
+        }
+        Path recording = Paths.get(args[0]);
+        String scriptLibrary = ScriptInterfaceUtils.loadScriptLibrary(args[1]);
+        int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        Class<?> contextClass = args.length > 3 ? Class.forName(args[3]) : null;
+
+        // Recordings are named after the script interface FQN
+        String fileName = recording.getFileName().toString();
+        String interfaceName = fileName.substring(0, fileName.length() - ".recording".length());
+        Class<Object> scriptInterface = (Class<Object>) Class.forName(interfaceName);
+        Constructor<?> proxyConstructor = proxyConstructor(Class.forName(interfaceName + "_Proxy"), contextClass);
+        Report report = replay(recording, scriptInterface, () -> {
+            try {
+                return contextClass == null ? proxyConstructor.newInstance(scriptLibrary)
+                        : proxyConstructor.newInstance(scriptLibrary, contextClass.getConstructor().newInstance());
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Cannot create " + interfaceName + "_Proxy", e);
+            }
+        }, iterations);
+        System.out.println(report);
+    }
+
+    private static Constructor<?> proxyConstructor(Class<?> proxyClass, Class<?> contextClass)
+            throws NoSuchMethodException {
+        if (contextClass == null) {
+            return proxyClass.getConstructor(String.class);
+        }
+        for (Constructor<?> constructor : proxyClass.getConstructors()) {
+            Class<?>[] parameterTypes = constructor.getParameterTypes();
+            if (parameterTypes.length == 2 && parameterTypes[0] == String.class
+                    && parameterTypes[1].isAssignableFrom(contextClass)) {
+                return constructor;
+            }
+        }
+        throw new NoSuchMethodException(proxyClass.getName() + " has no constructor taking a " + contextClass.getName());
+    }
+
+    private static class Call {
+        final Method method;
+        final Object[] args;
+        final long recordedNanos;
+
+        Call(Method method, Object[] args, long recordedNanos) {
+            this.method = method;
+            this.args = args;
+            this.recordedNanos = recordedNanos;
+        }
+    }
+
+    /**
+     * Throughput and per method latencies of a replay, next to the latencies that were recorded.
+     */
+    public static class Report {
+
+        private final Map<String, MethodReport> methods = new TreeMap<>();
+        private long elapsedNanos;
+
+        private void record(Call call, long nanos, boolean failed) {
+            MethodReport method = methods.computeIfAbsent(call.method.getName(), MethodReport::new);
+            method.recorded.record(call.recordedNanos);
+            method.replayed.record(nanos);
+            if (failed) {
+                method.failures++;
+            }
+        }
+
+        public Map<String, MethodReport> getMethods() {
+            return Collections.unmodifiableMap(methods);
+        }
+
+        public long getInvocationCount() {
+            return methods.values().stream().mapToLong(method -> method.replayed.getCount()).sum();
+        }
+
+        /**
+         * Returns the number of invocations replayed per second.
+         */
+        public double getThroughput() {
+            return elapsedNanos == 0 ? 0 : getInvocationCount() / (elapsedNanos / 1_000_000_000.0);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder report = new StringBuilder(String.format("%d invocations, %.1f invocations/s",
+                    getInvocationCount(), getThroughput()));
+            methods.values().forEach(method -> report.append("\n").append(method));
+            return report.toString();
+        }
+    }
+
+    /**
+     * Recorded and replayed latencies of a method.
+     */
+    public static class MethodReport {
+
+        private final String method;
+        private final ScriptLatencyHistogram recorded = new ScriptLatencyHistogram();
+        private final ScriptLatencyHistogram replayed = new ScriptLatencyHistogram();
+        private long failures;
+
+        MethodReport(String method) {
+            this.method = method;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public ScriptLatencyHistogram getRecorded() {
+            return recorded;
+        }
+
+        public ScriptLatencyHistogram getReplayed() {
+            return replayed;
+        }
+
+        public long getFailureCount() {
+            return failures;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: replayed %s, recorded %s, %d failures", method, replayed, recorded, failures);
+        }
+    }
+}
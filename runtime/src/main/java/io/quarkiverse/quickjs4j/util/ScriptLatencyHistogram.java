@@ -0,0 +1,60 @@
+package io.quarkiverse.quickjs4j.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe latency distribution with power-of-two microsecond buckets, so percentiles are accurate to
+ * within a factor of two.
+ */
+public class ScriptLatencyHistogram {
+
+    private final AtomicLongArray buckets = new AtomicLongArray(64);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+
+    /**
+     * Records a latency, in nanoseconds.
+     */
+    public void record(long nanos) {
+        long micros = Math.max(1, TimeUnit.NANOSECONDS.toMicros(nanos));
+        buckets.incrementAndGet(63 - Long.numberOfLeadingZeros(micros));
+        count.increment();
+        totalNanos.add(nanos);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public double getMeanMillis() {
+        long n = getCount();
+        return n == 0 ? 0 : totalNanos.sum() / (n * 1_000_000.0);
+    }
+
+    /**
+     * Returns the upper bound (in milliseconds) of the bucket containing the given percentile.
+     */
+    public double getPercentileMillis(double percentile) {
+        long n = getCount();
+        if (n == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(n * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return Math.pow(2, i + 1) / 1000.0;
+            }
+        }
+        return Math.pow(2, buckets.length()) / 1000.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("n=%d, mean=%.2fms, p50=%.2fms, p99=%.2fms", getCount(), getMeanMillis(),
+                getPercentileMillis(50), getPercentileMillis(99));
+    }
+}
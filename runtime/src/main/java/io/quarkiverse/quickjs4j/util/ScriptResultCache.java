@@ -0,0 +1,244 @@
+package io.quarkiverse.quickjs4j.util;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Bounded, concurrent cache of script method results, used by the generated CDI beans for
+ * methods annotated with {@code @ScriptCacheable}. Entries are evicted in insertion order once
+ * the maximum size is reached, and are ignored once they are older than the configured TTL.
+ */
+public class ScriptResultCache {
+
+    private static final Map<String, ScriptResultCache> CACHES = new ConcurrentHashMap<>();
+    private static final List<Consumer<ScriptResultCache>> LISTENERS = new CopyOnWriteArrayList<>();
+
+    /**
+     * Creates a new cache and registers it under the given name (typically
+     * {@code <interface FQN>.<method name>}), replacing any cache previously registered
+     * under that name.
+     */
+    public static ScriptResultCache create(String name, int maxSize, long ttlMillis) {
+        ScriptResultCache cache = new ScriptResultCache(name, maxSize, ttlMillis);
+        CACHES.put(name, cache);
+        LISTENERS.forEach(listener -> listener.accept(cache));
+        return cache;
+    }
+
+    /**
+     * Returns all registered caches, keyed by name.
+     */
+    public static Map<String, ScriptResultCache> caches() {
+        return Collections.unmodifiableMap(CACHES);
+    }
+
+    /**
+     * Registers a listener that is notified of all registered caches, and of caches registered later on.
+     */
+    public static void addListener(Consumer<ScriptResultCache> listener) {
+        LISTENERS.add(listener);
+        CACHES.values().forEach(listener);
+    }
+
+    /**
+     * Removes a listener registered through {@link #addListener(Consumer)}.
+     */
+    public static void removeListener(Consumer<ScriptResultCache> listener) {
+        LISTENERS.remove(listener);
+    }
+
+    /**
+     * Creates a cache key from the arguments of a script method invocation. The key holds a copy of the
+     * arguments (and of any array among them), so callers may reuse their argument arrays afterwards.
+     */
+    public static Key key(Object... args) {
+        return new Key(args);
+    }
+
+    private final String name;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final Queue<Entry> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private ScriptResultCache(String name, int maxSize, long ttlMillis) {
+        this.name = name;
+        this.maxSize = Math.max(1, maxSize);
+        this.ttlNanos = ttlMillis > 0 ? ttlMillis * 1_000_000L : 0;
+    }
+
+    /**
+     * Returns the cached entry for the given key, or null if there is no (valid) entry.
+     */
+    public Entry get(Key key) {
+        Entry entry = entries.get(key);
+        if (entry != null && isExpired(entry, System.nanoTime())) {
+            entries.remove(key, entry);
+            entry = null;
+        }
+        if (entry == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return entry;
+    }
+
+    /**
+     * Caches the result of an invocation, evicting the oldest entries if the cache is full.
+     */
+    public void put(Key key, Object value) {
+        Entry entry = new Entry(key, value, System.nanoTime());
+        entries.put(key, entry);
+        insertionOrder.add(entry);
+        evictIfNeeded();
+    }
+
+    /**
+     * Removes all entries from the cache.
+     */
+    public void clear() {
+        entries.clear();
+        insertionOrder.clear();
+    }
+
+    private void evictIfNeeded() {
+        long now = System.nanoTime();
+        while (entries.size() > maxSize || isHeadExpired(now)) {
+            Entry oldest = insertionOrder.poll();
+            if (oldest == null) {
+                break;
+            }
+            // Stale queue entries (replaced by a later put) are simply dropped
+            if (entries.remove(oldest.key, oldest)) {
+                evictions.increment();
+            }
+        }
+    }
+
+    private boolean isHeadExpired(long now) {
+        Entry head = insertionOrder.peek();
+        return head != null && isExpired(head, now);
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return ttlNanos > 0 && now - entry.createdAt > ttlNanos;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Cache key wrapping the invocation arguments. Arguments are compared with
+     * {@link Arrays#deepEquals(Object[], Object[])}, so array arguments are compared by content
+     * and bean arguments by their own {@code equals()} implementation.
+     * <p>
+     * Array arguments are copied, bean arguments are not: a bean passed to a cacheable method must not be
+     * mutated afterwards, or the entry it keys can no longer be found (or is found by the wrong arguments).
+     */
+    public static final class Key {
+        private final Object[] args;
+        private final int hash;
+
+        private Key(Object[] args) {
+            this.args = (Object[]) copy(args);
+            this.hash = Arrays.deepHashCode(this.args);
+        }
+
+        private static Object copy(Object value) {
+            if (value instanceof Object[]) {
+                Object[] copy = ((Object[]) value).clone();
+                for (int i = 0; i < copy.length; i++) {
+                    copy[i] = copy(copy[i]);
+                }
+                return copy;
+            } else if (value instanceof byte[]) {
+                return ((byte[]) value).clone();
+            } else if (value instanceof int[]) {
+                return ((int[]) value).clone();
+            } else if (value instanceof long[]) {
+                return ((long[]) value).clone();
+            } else if (value instanceof double[]) {
+                return ((double[]) value).clone();
+            } else if (value instanceof float[]) {
+                return ((float[]) value).clone();
+            } else if (value instanceof short[]) {
+                return ((short[]) value).clone();
+            } else if (value instanceof char[]) {
+                return ((char[]) value).clone();
+            } else if (value instanceof boolean[]) {
+                return ((boolean[]) value).clone();
+            }
+            return value;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return hash == other.hash && Arrays.deepEquals(args, other.args);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * A cached invocation result. The same result object is returned to every caller that hits the entry,
+     * so results (e.g. beans unmarshalled from the script) must be treated as read-only.
+     */
+    public static final class Entry {
+        private final Key key;
+        private final Object value;
+        private final long createdAt;
+
+        private Entry(Key key, Object value, long createdAt) {
+            this.key = key;
+            this.value = value;
+            this.createdAt = createdAt;
+        }
+
+        public Object value() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package io.quarkiverse.quickjs4j.util;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Replays a sample of the invocations of a script interface against a candidate version of its script,
+ * used by the generated CDI beans of script interfaces annotated with {@code @ScriptShadow}.
+ * <p>
+ * Candidate invocations run on a small shared pool of daemon threads; when the pool is saturated, sampled
+ * invocations are dropped rather than delaying callers. Results are compared with
+ * {@link Objects#deepEquals(Object, Object)}, and failures match when both versions throw the same exception
+ * type.
+ */
+public class ScriptShadowRunner {
+
+    private static final Logger LOGGER = Logger.getLogger(ScriptShadowRunner.class.getName());
+
+    private static final Map<String, ScriptShadowRunner> RUNNERS = new ConcurrentHashMap<>();
+
+    private static final ExecutorService EXECUTOR = createExecutor();
+
+    private static ExecutorService createExecutor() {
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 4);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(100), runnable -> {
+                    Thread thread = new Thread(runnable, "quickjs4j-shadow");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Creates a new runner and registers it under the given name (typically the script interface FQN),
+     * replacing any runner previously registered under that name.
+     */
+    public static ScriptShadowRunner create(String name, String candidateLocation, double sampleRate) {
+        ScriptShadowRunner runner = new ScriptShadowRunner(name, candidateLocation, sampleRate);
+        RUNNERS.put(name, runner);
+        return runner;
+    }
+
+    /**
+     * Returns all registered runners, keyed by name.
+     */
+    public static Map<String, ScriptShadowRunner> runners() {
+        return Collections.unmodifiableMap(RUNNERS);
+    }
+
+    private final String name;
+    private final String candidateLocation;
+    private final double sampleRate;
+    private final Map<String, Comparison> comparisons = new ConcurrentHashMap<>();
+    private final LongAdder dropped = new LongAdder();
+
+    private ScriptShadowRunner(String name, String candidateLocation, double sampleRate) {
+        this.name = name;
+        this.candidateLocation = candidateLocation;
+        this.sampleRate = Math.min(1, Math.max(0, sampleRate));
+    }
+
+    /**
+     * Runs the primary invocation and returns its outcome. If the call is sampled, the candidate invocation
+     * is then run asynchronously and compared with the primary one.
+     */
+    public <R, E extends Throwable> R execute(String method, Invocation<R, E> primary, Invocation<R, ?> candidate)
+            throws E {
+        if (sampleRate == 0 || ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return primary.invoke();
+        }
+
+        Comparison comparison = comparisons.computeIfAbsent(method, Comparison::new);
+        long start = System.nanoTime();
+        R result;
+        try {
+            result = primary.invoke();
+        } catch (Throwable e) {
+            comparison.primary.record(System.nanoTime() - start);
+            shadow(comparison, null, e, candidate);
+            throw e;
+        }
+        comparison.primary.record(System.nanoTime() - start);
+        shadow(comparison, result, null, candidate);
+        return result;
+    }
+
+    private void shadow(Comparison comparison, Object primaryResult, Throwable primaryFailure, Invocation<?, ?> candidate) {
+        try {
+            EXECUTOR.execute(() -> {
+                Object candidateResult = null;
+                Throwable candidateFailure = null;
+                long start = System.nanoTime();
+                try {
+                    candidateResult = candidate.invoke();
+                } catch (Throwable e) {
+                    candidateFailure = e;
+                }
+                comparison.candidate.record(System.nanoTime() - start);
+
+                boolean matches = primaryFailure != null
+                        ? candidateFailure != null && candidateFailure.getClass() == primaryFailure.getClass()
+                        : candidateFailure == null && Objects.deepEquals(primaryResult, candidateResult);
+                if (!matches) {
+                    comparison.mismatches.increment();
+                    LOGGER.log(Level.FINE, "Candidate script " + candidateLocation + " of " + name + " disagrees on "
+                            + comparison.method + ": " + (primaryFailure != null ? primaryFailure : primaryResult)
+                            + " != " + (candidateFailure != null ? candidateFailure : candidateResult));
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            dropped.increment();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getCandidateLocation() {
+        return candidateLocation;
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * Returns the comparison of every sampled method, keyed by method name.
+     */
+    public Map<String, Comparison> getComparisons() {
+        return Collections.unmodifiableMap(new TreeMap<>(comparisons));
+    }
+
+    /**
+     * Returns the number of sampled invocations that were not replayed because the shadow pool was saturated.
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Side-by-side latencies and result mismatches of the primary and candidate versions of a method.
+     */
+    public static class Comparison {
+
+        private final String method;
+        private final ScriptLatencyHistogram primary = new ScriptLatencyHistogram();
+        private final ScriptLatencyHistogram candidate = new ScriptLatencyHistogram();
+        private final LongAdder mismatches = new LongAdder();
+
+        Comparison(String method) {
+            this.method = method;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public ScriptLatencyHistogram getPrimary() {
+            return primary;
+        }
+
+        public ScriptLatencyHistogram getCandidate() {
+            return candidate;
+        }
+
+        public long getMismatchCount() {
+            return mismatches.sum();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: primary %s, candidate %s, %d mismatches", method, primary, candidate,
+                    getMismatchCount());
+        }
+    }
+
+    /**
+     * A script method invocation.
+     */
+    @FunctionalInterface
+    public interface Invocation<R, E extends Throwable> {
+        R invoke() throws E;
+    }
+}
@@ -0,0 +1,222 @@
+package io.quarkiverse.quickjs4j.util;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Creates the script instances of a script interface in two tiers, used by the generated CDI beans of script
+ * interfaces annotated with {@code @ScriptTiered}.
+ * <p>
+ * Until the interface has been called a given number of times, every call instantiates (and compiles) its
+ * script instance on demand, so that rarely used interfaces cost nothing up front. Once promoted, a few
+ * instances are instantiated ahead of time on a shared pool of daemon threads, and calls take a warm
+ * instance instead of paying for the compilation themselves. Every instance is still used by a single call,
+ * so calls see a fresh engine in both tiers; calls that find no warm instance fall back to instantiating
+ * one on demand. Warm instances are counted as live instances of the given {@link ScriptInstanceMetrics}, and
+ * closed when the instantiator is {@linkplain #close() closed}.
+ */
+public class ScriptTieredInstantiator<T extends AutoCloseable> {
+
+    private static final Logger LOGGER = Logger.getLogger(ScriptTieredInstantiator.class.getName());
+
+    private static final Map<String, ScriptTieredInstantiator<?>> INSTANTIATORS = new ConcurrentHashMap<>();
+
+    private static final ExecutorService EXECUTOR = createExecutor();
+
+    private static ExecutorService createExecutor() {
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 4);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "quickjs4j-tiered");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Creates a new instantiator and registers it under the given name (typically the script interface FQN),
+     * replacing any instantiator previously registered under that name.
+     *
+     * @param promoteAfter the number of calls after which instances are instantiated ahead of time
+     * @param warmInstances the number of instances kept ready once promoted
+     * @param instances the metrics the warm instances are counted in
+     */
+    public static <T extends AutoCloseable> ScriptTieredInstantiator<T> create(String name, int promoteAfter,
+            int warmInstances, ScriptInstanceMetrics instances) {
+        ScriptTieredInstantiator<T> instantiator = new ScriptTieredInstantiator<>(name, promoteAfter, warmInstances,
+                instances);
+        INSTANTIATORS.put(name, instantiator);
+        return instantiator;
+    }
+
+    /**
+     * Returns all registered instantiators, keyed by name.
+     */
+    public static Map<String, ScriptTieredInstantiator<?>> instantiators() {
+        return Collections.unmodifiableMap(INSTANTIATORS);
+    }
+
+    private final String name;
+    private final int promoteAfter;
+    private final int warmInstances;
+    private final ScriptInstanceMetrics instances;
+    private final Queue<T> warm = new ConcurrentLinkedQueue<>();
+    // Warm instances plus the instances being instantiated in the background
+    private final AtomicInteger scheduled = new AtomicInteger();
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder warmHits = new LongAdder();
+    private final LongAdder coldMisses = new LongAdder();
+    private volatile boolean promoted;
+    private volatile boolean closed;
+
+    private ScriptTieredInstantiator(String name, int promoteAfter, int warmInstances, ScriptInstanceMetrics instances) {
+        this.name = name;
+        this.promoteAfter = Math.max(0, promoteAfter);
+        this.warmInstances = Math.max(1, warmInstances);
+        this.instances = instances;
+    }
+
+    /**
+     * Returns a script instance for a single call: a warm instance if the interface was promoted and one is
+     * ready, or else a new instance from the given factory. Once promoted, the factory is also used to replace
+     * taken instances in the background.
+     */
+    public T take(Supplier<? extends T> factory) {
+        if (closed) {
+            return factory.get();
+        }
+        if (!promoted) {
+            calls.increment();
+            if (calls.sum() < promoteAfter) {
+                return factory.get();
+            }
+            promoted = true;
+        }
+
+        T instance = warm.poll();
+        if (instance != null) {
+            scheduled.decrementAndGet();
+            instances.unwarmed();
+            warmHits.increment();
+        } else {
+            coldMisses.increment();
+        }
+        refill(factory);
+        return instance != null ? instance : factory.get();
+    }
+
+    private void refill(Supplier<? extends T> factory) {
+        int current;
+        while ((current = scheduled.get()) < warmInstances) {
+            if (!scheduled.compareAndSet(current, current + 1)) {
+                continue;
+            }
+            try {
+                EXECUTOR.execute(() -> {
+                    T instance;
+                    try {
+                        instance = factory.get();
+                    } catch (Throwable e) {
+                        // Errors (e.g. the engine running out of memory) must not silently kill the pool thread
+                        scheduled.decrementAndGet();
+                        LOGGER.log(Level.WARNING, "Failed to instantiate a warm script instance of " + name, e);
+                        return;
+                    }
+                    instances.warmed();
+                    warm.add(instance);
+                    if (closed) {
+                        // Closed while the instance was being instantiated
+                        closeWarmInstances();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                scheduled.decrementAndGet();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Closes the warm instances and demotes the interface, so that instances are instantiated on demand again
+     * until it is called {@code promoteAfter} more times.
+     */
+    public void reset() {
+        promoted = false;
+        calls.reset();
+        closeWarmInstances();
+    }
+
+    /**
+     * Closes the warm instances, including the ones still being instantiated, and stops instantiating instances
+     * ahead of time. Calls made afterwards instantiate their instance on demand.
+     */
+    public void close() {
+        closed = true;
+        closeWarmInstances();
+    }
+
+    private void closeWarmInstances() {
+        T instance;
+        while ((instance = warm.poll()) != null) {
+            scheduled.decrementAndGet();
+            instances.unwarmed();
+            try {
+                instance.close();
+            } catch (Exception e) {
+                LOGGER.log(Level.FINE, "Failed to close a warm script instance of " + name, e);
+            }
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getPromoteAfter() {
+        return promoteAfter;
+    }
+
+    public boolean isPromoted() {
+        return promoted;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Returns the number of instances ready to be taken.
+     */
+    public int getWarmCount() {
+        return warm.size();
+    }
+
+    /**
+     * Returns the number of calls of the promoted interface that took a warm instance.
+     */
+    public long getWarmHits() {
+        return warmHits.sum();
+    }
+
+    /**
+     * Returns the number of calls of the promoted interface that found no warm instance and instantiated one.
+     */
+    public long getColdMisses() {
+        return coldMisses.sum();
+    }
+}